@@ -2,8 +2,10 @@ package com.example.ecart;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class EcartApplication {
     public static void main(String[] args) {
         SpringApplication.run(EcartApplication.class, args);
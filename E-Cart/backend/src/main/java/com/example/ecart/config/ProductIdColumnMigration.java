@@ -0,0 +1,37 @@
+package com.example.ecart.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// ddl-auto=update never widens an existing column, so databases created while product_id was
+// VARCHAR(3) are altered here once, after Hibernate's schema update and before the web server
+// takes requests. Existing ids, the unique constraint and NOT NULL are kept.
+@Component
+@DependsOn("entityManagerFactory")
+public class ProductIdColumnMigration {
+    private static final Logger log = LoggerFactory.getLogger(ProductIdColumnMigration.class);
+
+    private static final int PRODUCT_ID_LENGTH = 32;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        List<Integer> lengths = jdbcTemplate.queryForList(
+                "SELECT CHARACTER_MAXIMUM_LENGTH FROM INFORMATION_SCHEMA.COLUMNS " +
+                "WHERE UPPER(TABLE_NAME) = 'PRODUCTS' AND UPPER(COLUMN_NAME) = 'PRODUCT_ID'", Integer.class);
+        if (lengths.isEmpty() || lengths.get(0) == null || lengths.get(0) >= PRODUCT_ID_LENGTH) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE products ALTER COLUMN product_id SET DATA TYPE VARCHAR(" + PRODUCT_ID_LENGTH + ")");
+        log.info("Widened products.product_id from {} to {} characters", lengths.get(0), PRODUCT_ID_LENGTH);
+    }
+}
@@ -2,18 +2,30 @@ package com.example.ecart.controller;
 
 import com.example.ecart.domain.entity.Order;
 import com.example.ecart.domain.entity.Product;
+import com.example.ecart.dto.request.BulkCancelOrdersRequest;
 import com.example.ecart.dto.request.CreateProductRequest;
 import com.example.ecart.dto.request.FeedbackRequest;
 import com.example.ecart.dto.request.UpdateOrderRequest;
 import com.example.ecart.dto.request.UpdateProductRequest;
+import com.example.ecart.dto.response.BulkCancelResponse;
 import com.example.ecart.dto.response.CustomerResponse;
 import com.example.ecart.dto.response.FeedbackResponse;
+import com.example.ecart.dto.response.FeedbackSliceResponse;
 import com.example.ecart.dto.response.OrderResponse;
+import com.example.ecart.dto.response.OrderSliceResponse;
 import com.example.ecart.dto.response.ProductResponse;
 import com.example.ecart.repository.CustomerRepository;
-import com.example.ecart.repository.FeedbackRepository;
+import com.example.ecart.service.CartService;
+import com.example.ecart.service.FeedbackService;
+import com.example.ecart.service.FlashSaleService;
+import com.example.ecart.service.InvoiceExportService;
 import com.example.ecart.service.OrderService;
+import com.example.ecart.service.OrderViewService;
+import com.example.ecart.service.ProductRatingService;
 import com.example.ecart.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -21,18 +33,29 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/admin")
@@ -47,7 +70,25 @@ public class AdminController {
     private CustomerRepository customerRepository;
 
     @Autowired
-    private FeedbackRepository feedbackRepository;
+    private CartService cartService;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private OrderViewService orderViewService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRatingService productRatingService;
+
+    @Autowired
+    private FeedbackService feedbackService;
+
+    @Autowired
+    private InvoiceExportService invoiceExportService;
 
     @PostMapping("/products")
     public ResponseEntity<?> createProduct(@Valid @RequestBody CreateProductRequest request) {
@@ -303,6 +344,51 @@ public class AdminController {
         return ResponseEntity.ok(orders);
     }
 
+    // Keyset pagination, newest first; follow nextCursor with "after"
+    @GetMapping("/orders/slice")
+    public ResponseEntity<?> getOrdersSlice(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            Specification<Order> spec = buildOrderSpecification(status);
+            Specification<Order> checkInvoice = (root, query, cb) -> cb.isNotNull(root.get("invoiceId"));
+            OrderSliceResponse orders = orderService.getAllOrders(spec.and(checkInvoice), after, size, withTotal);
+            return ResponseEntity.ok(orders);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    // Regenerates the order read model from the source tables
+    @PostMapping("/orders/views/rebuild")
+    public ResponseEntity<?> rebuildOrderViews() {
+        try {
+            long rebuilt = orderViewService.rebuildAll();
+            Map<String, Object> response = new HashMap<>();
+            response.put("rebuilt", rebuilt);
+            response.put("message", "Order views rebuilt successfully");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    // Recomputes the per-product rating totals from the feedback table
+    @PostMapping("/products/ratings/rebuild")
+    public ResponseEntity<?> rebuildProductRatings() {
+        try {
+            long rebuilt = productRatingService.rebuildAll();
+            Map<String, Object> response = new HashMap<>();
+            response.put("rebuilt", rebuilt);
+            response.put("message", "Product ratings rebuilt successfully");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
     @GetMapping("/orders/{orderId}")
     public ResponseEntity<OrderResponse> getOrder(@PathVariable String orderId) {
         OrderResponse order = orderService.getOrderByOrderId(orderId);
@@ -333,6 +419,72 @@ public class AdminController {
         }
     }
 
+    // Cancels confirmed orders in bulk; orders that are missing or past CONFIRMED are reported, not cancelled
+    @PostMapping("/orders/bulk-cancel")
+    public ResponseEntity<?> bulkCancelOrders(@Valid @RequestBody BulkCancelOrdersRequest request) {
+        try {
+            BulkCancelResponse response = orderService.bulkCancelOrders(request.getOrderIds(), request.getReason());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    // Streams orderId,status,arrivingDate rows from the request body: text/csv, or application/x-ndjson
+    // with one JSON object per line. Answers with one NDJSON report line per chunk as it is applied.
+    @PostMapping(value = "/orders/bulk-update", consumes = {"text/csv", "application/x-ndjson"})
+    public void bulkUpdateOrders(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean ndjson = request.getContentType().startsWith("application/x-ndjson");
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        OutputStream out = response.getOutputStream();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            orderService.bulkUpdateOrders(reader, ndjson, report -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(report));
+                    out.write('\n');
+                    out.flush();
+                } catch (IOException e) {
+                    throw new RuntimeException("Client disconnected", e);
+                }
+            });
+        }
+    }
+
+    @GetMapping("/carts/metrics")
+    public ResponseEntity<Map<String, Long>> getCartMetrics() {
+        return ResponseEntity.ok(cartService.getStoreMetrics());
+    }
+
+    @GetMapping("/flash-sale")
+    public ResponseEntity<Map<String, Integer>> getFlashSaleProducts() {
+        return ResponseEntity.ok(flashSaleService.getActiveProducts());
+    }
+
+    @PostMapping("/flash-sale/{productId}/enable")
+    public ResponseEntity<?> enableFlashSale(@PathVariable String productId) {
+        try {
+            flashSaleService.enable(productId);
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Flash-sale mode enabled");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/flash-sale/{productId}/disable")
+    public ResponseEntity<?> disableFlashSale(@PathVariable String productId) {
+        try {
+            flashSaleService.disable(productId);
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Flash-sale mode disabled");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
     @GetMapping("/orders/{orderId}/feedback")
     public ResponseEntity<?> getOrderFeedback(@PathVariable String orderId) {
         OrderResponse order = orderService.getOrderByOrderId(orderId);
@@ -344,24 +496,58 @@ public class AdminController {
     public ResponseEntity<List<FeedbackResponse>> getAllFeedback(
             @RequestParam(required = false) String productId,
             @RequestParam(required = false) Product.ProductCategory category) {
-        List<com.example.ecart.domain.entity.Feedback> feedbacks = feedbackRepository.findAll();
-        List<FeedbackResponse> responses = feedbacks.stream()
-                .filter(f -> f.getOrder().getStatus() == Order.OrderStatus.DELIVERED)
-                .filter(f -> productId == null || f.getProduct().getProductId().equals(productId))
-                .filter(f -> category == null || f.getProduct().getCategory() == category)
-                .map(f -> FeedbackResponse.builder()
-                        .orderId(f.getOrder().getOrderId())
-                        .customerId(f.getCustomer().getCustomerId())
-                        .customerName(f.getCustomer().getName())
-                        .productId(f.getProduct().getProductId())
-                        .productName(f.getProduct().getName())
-                        .productCategory(f.getProduct().getCategory())
-                        .description(f.getDescription())
-                        .rating(f.getRating())
-                        .createdAt(f.getCreatedAt())
-                        .build())
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(responses);
+        return ResponseEntity.ok(feedbackService.getFeedback(productId, category));
+    }
+
+    // Keyset pagination, newest first; follow nextCursor with "after"
+    @GetMapping("/feedback/slice")
+    public ResponseEntity<?> getFeedbackSlice(
+            @RequestParam(required = false) String productId,
+            @RequestParam(required = false) Product.ProductCategory category,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            FeedbackSliceResponse feedback = feedbackService.getFeedbackSlice(productId, category, after, size);
+            return ResponseEntity.ok(feedback);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    // Full result as a streamed CSV download
+    @GetMapping("/feedback/export")
+    public ResponseEntity<StreamingResponseBody> exportFeedback(
+            @RequestParam(required = false) String productId,
+            @RequestParam(required = false) Product.ProductCategory category) {
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            feedbackService.exportCsv(productId, category, writer);
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"feedback.csv\"")
+                .body(body);
+    }
+
+    // Every invoice issued between from and to (inclusive, yyyy-MM-dd) as a streamed ZIP
+    @GetMapping("/invoices/export")
+    public ResponseEntity<?> exportInvoices(@RequestParam String from, @RequestParam String to) {
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = LocalDate.parse(from);
+            toDate = LocalDate.parse(to);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("Dates must be in yyyy-MM-dd format"));
+        }
+        if (toDate.isBefore(fromDate)) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("'to' must not be before 'from'"));
+        }
+        StreamingResponseBody body = out -> invoiceExportService.exportZip(fromDate, toDate, new BufferedOutputStream(out, 64 * 1024));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"invoices-" + fromDate + "-to-" + toDate + ".zip\"")
+                .body(body);
     }
 
     private Specification<Product> buildProductSpecification(String productId, String name, 
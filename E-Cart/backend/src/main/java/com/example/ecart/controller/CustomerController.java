@@ -4,12 +4,20 @@ import com.example.ecart.dto.request.CancelOrderRequest;
 import com.example.ecart.dto.request.FeedbackRequest;
 import com.example.ecart.dto.request.PaymentRequest;
 import com.example.ecart.dto.request.UpdateCustomerRequest;
+import com.example.ecart.dto.response.CartItemResponse;
 import com.example.ecart.dto.response.CustomerResponse;
 import com.example.ecart.dto.response.OrderResponse;
+import com.example.ecart.dto.response.OrderSliceResponse;
 import com.example.ecart.service.CartService;
 import com.example.ecart.service.CustomerService;
+import com.example.ecart.service.IdempotencyService;
+import com.example.ecart.service.InvoiceFileStore;
+import com.example.ecart.service.InvoicePdfService;
 import com.example.ecart.service.OrderService;
 import com.example.ecart.service.PaymentService;
+import com.example.ecart.util.FileDownloadWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -17,18 +25,21 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/customers/me")
@@ -46,7 +57,16 @@ public class CustomerController {
     private PaymentService paymentService;
 
     @Autowired
-    private com.example.ecart.service.InvoiceService invoiceService;
+    private InvoicePdfService invoicePdfService;
+
+    @Autowired
+    private InvoiceFileStore invoiceFileStore;
+
+    @Autowired
+    private FileDownloadWriter fileDownloadWriter;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
 
     @GetMapping
     public ResponseEntity<CustomerResponse> getMyProfile(Authentication authentication) {
@@ -82,11 +102,11 @@ public class CustomerController {
     @GetMapping("/cart")
     public ResponseEntity<?> getCart(Authentication authentication) {
         String customerId = authentication.getName();
-        List<Map<String, Object>> cart = cartService.getCart(customerId);
+        List<CartItemResponse> cart = cartService.getCart(customerId);
         Map<String, Object> response = new HashMap<>();
         response.put("items", cart);
         BigDecimal total = cart.stream()
-                .map(item -> ((BigDecimal) item.get("price")).multiply(BigDecimal.valueOf((Integer) item.get("quantity"))))
+                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
         response.put("total", total);
         return ResponseEntity.ok(response);
@@ -116,11 +136,18 @@ public class CustomerController {
         }
     }
 
+    // With an Idempotency-Key header, retries of the same checkout return the first response
     @PostMapping("/cart/checkout")
-    public ResponseEntity<?> checkout(@RequestBody Map<String, String> request, Authentication authentication) {
+    public ResponseEntity<?> checkout(@RequestBody Map<String, String> request,
+                                      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                      Authentication authentication) {
         try {
             String customerId = authentication.getName();
             String addressSnapshot = request.get("addressSnapshot");
+            if (idempotencyKey != null) {
+                return idempotentResponse(idempotencyService.execute(customerId, idempotencyKey, "checkout", request,
+                        () -> orderService.createOrderFromCart(customerId, addressSnapshot)));
+            }
             OrderResponse order = orderService.createOrderFromCart(customerId, addressSnapshot);
             return ResponseEntity.ok(order);
         } catch (Exception e) {
@@ -128,15 +155,29 @@ public class CustomerController {
         }
     }
 
+    // Completes asynchronously: the request thread is released while the gateway call is in flight
     @PostMapping("/payments")
-    public ResponseEntity<?> makePayment(@Valid @RequestBody PaymentRequest request, Authentication authentication) {
+    public CompletableFuture<ResponseEntity<?>> makePayment(@Valid @RequestBody PaymentRequest request,
+                                                            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                            Authentication authentication) {
         try {
             String orderId = request.getOrderId();
             String customerId = authentication.getName();
-            Map<String, String> response = paymentService.processPayment(orderId, request, customerId);
-            return ResponseEntity.ok(response);
+            CompletableFuture<ResponseEntity<?>> response;
+            if (idempotencyKey != null) {
+                response = idempotencyService.executeAsync(customerId, idempotencyKey, "payment", request,
+                        () -> paymentService.processPayment(orderId, request, customerId))
+                        .<ResponseEntity<?>>thenApply(this::idempotentResponse);
+            } else {
+                response = paymentService.processPayment(orderId, request, customerId)
+                        .<ResponseEntity<?>>thenApply(ResponseEntity::ok);
+            }
+            return response.exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                return ResponseEntity.badRequest().body(new ErrorResponse(cause.getMessage()));
+            });
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage())));
         }
     }
 
@@ -159,6 +200,26 @@ public class CustomerController {
         return ResponseEntity.ok(orders);
     }
 
+    // Keyset pagination, newest first; follow nextCursor with "after"
+    @GetMapping("/orders/slice")
+    public ResponseEntity<?> getMyOrdersSlice(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String dateFrom,
+            @RequestParam(required = false) String dateTo,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            Authentication authentication) {
+        try {
+            String customerId = authentication.getName();
+            Specification<com.example.ecart.domain.entity.Order> spec = buildOrderSpecification(status, dateFrom, dateTo);
+            OrderSliceResponse orders = orderService.getCustomerOrders(customerId, spec, after, size, withTotal);
+            return ResponseEntity.ok(orders);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
     @GetMapping("/orders/{orderId}")
     public ResponseEntity<OrderResponse> getOrder(@PathVariable String orderId, Authentication authentication) {
         OrderResponse order = orderService.getOrderByOrderId(orderId);
@@ -184,21 +245,24 @@ public class CustomerController {
         }
     }
 
+    // Served straight from the invoice file store, with ETag/Last-Modified revalidation and byte ranges
     @GetMapping("/invoices/{orderId}/download")
-    public ResponseEntity<byte[]> downloadInvoice(@PathVariable String orderId, Authentication authentication) {
+    public void downloadInvoice(@PathVariable String orderId, Authentication authentication,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path pdf;
         try {
             OrderResponse order = orderService.getOrderByOrderId(orderId);
             if (!order.getCustomerId().equals(authentication.getName())) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+                response.setStatus(HttpStatus.FORBIDDEN.value());
+                return;
             }
-            byte[] pdf = invoiceService.generateInvoicePdf(orderId);
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "invoice-" + orderId + ".pdf");
-            return ResponseEntity.ok().headers(headers).body(pdf);
+            pdf = invoicePdfService.getPdf(orderId);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
         }
+        fileDownloadWriter.write(request, response, pdf, invoiceFileStore.hashOf(pdf),
+                MediaType.APPLICATION_PDF_VALUE, "invoice-" + orderId + ".pdf");
     }
 
     @PostMapping("/feedback")
@@ -228,6 +292,13 @@ public class CustomerController {
         };
     }
 
+    private ResponseEntity<byte[]> idempotentResponse(IdempotencyService.Result result) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotent-Replayed", String.valueOf(result.isReplayed()))
+                .body(result.getBody());
+    }
+
     private static class ErrorResponse {
         private String message;
         public ErrorResponse(String message) { this.message = message; }
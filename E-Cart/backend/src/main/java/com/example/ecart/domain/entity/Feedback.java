@@ -10,7 +10,12 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "feedback")
+@Table(name = "feedback", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_feedback_order_product_customer", columnNames = {"order_id", "product_id", "customer_id"})
+}, indexes = {
+    @Index(name = "idx_feedback_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_feedback_product_created_at_id", columnList = "product_id, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
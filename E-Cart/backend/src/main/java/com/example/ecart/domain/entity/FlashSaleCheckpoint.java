@@ -0,0 +1,22 @@
+package com.example.ecart.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Last flash-sale WAL segment whose stock deltas reached the products table
+@Entity
+@Table(name = "flash_sale_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FlashSaleCheckpoint {
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private Long appliedEpoch;
+}
@@ -0,0 +1,49 @@
+package com.example.ecart.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Stored response of a checkout or payment, replayed when the client retries with the same Idempotency-Key
+@Entity
+@Table(name = "idempotency_keys", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"customer_id", "idempotency_key"})
+}, indexes = {
+    @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "customer_id", nullable = false, updatable = false)
+    private String customerId;
+
+    @Column(name = "idempotency_key", nullable = false, updatable = false)
+    private String idempotencyKey;
+
+    @Column(nullable = false, updatable = false)
+    private String operation;
+
+    @Column(nullable = false, updatable = false, length = 64)
+    private String requestHash; // SHA-256 of operation and request body, hex
+
+    @Column(columnDefinition = "TEXT", nullable = false, updatable = false)
+    private String responseBody; // JSON
+
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "expires_at", nullable = false, updatable = false)
+    private LocalDateTime expiresAt;
+}
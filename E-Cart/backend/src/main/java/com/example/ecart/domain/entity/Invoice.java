@@ -13,6 +13,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "invoices", uniqueConstraints = {
     @UniqueConstraint(columnNames = "order_id")
+}, indexes = {
+    @Index(name = "idx_invoices_timestamp_id", columnList = "timestamp, id")
 })
 @Data
 @NoArgsConstructor
@@ -40,5 +42,9 @@ public class Invoice {
     @Column(nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime timestamp = LocalDateTime.now();
+
+    // SHA-256 of the rendered PDF in the invoice file store; null until it has been rendered
+    @Column(length = 64)
+    private String pdfSha256;
 }
 
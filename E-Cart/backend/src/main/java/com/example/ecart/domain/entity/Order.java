@@ -14,6 +14,9 @@ import java.util.UUID;
 @Entity
 @Table(name = "orders", uniqueConstraints = {
     @UniqueConstraint(columnNames = "order_id")
+}, indexes = {
+    @Index(name = "idx_orders_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_orders_customer_created_at_id", columnList = "customer_id, created_at, id")
 })
 @Data
 @NoArgsConstructor
@@ -0,0 +1,33 @@
+package com.example.ecart.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Read model: one pre-assembled OrderResponse document per order, keyed by the order's id
+@Entity
+@Table(name = "order_views", uniqueConstraints = {
+    @UniqueConstraint(columnNames = "order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderView {
+    @Id
+    private UUID id;
+
+    @Column(name = "order_id", nullable = false, updatable = false)
+    private String orderId;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String document; // OrderResponse as JSON
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,65 @@
+package com.example.ecart.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Domain event written in the same transaction as the change it describes, and delivered to
+// in-process subscribers by the OutboxDispatcher after commit
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_events_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private EventType eventType;
+
+    @Column(nullable = false, updatable = false)
+    private String aggregateId; // orderId; productId for admin stock updates, "bulk-cancel" for bulk cancellations
+
+    @Column(columnDefinition = "TEXT", nullable = false, updatable = false)
+    private String payload; // JSON
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private EventStatus status = EventStatus.PENDING;
+
+    @Column(length = 1000)
+    private String deliveredTo; // comma-separated names of subscribers that handled it
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime dispatchedAt;
+
+    public enum EventType {
+        ORDER_CREATED, ORDER_PAID, ORDER_CANCELLED, STOCK_CHANGED
+    }
+
+    public enum EventStatus {
+        PENDING, DISPATCHED, PARKED // PARKED: gave up after outbox.max-attempts, left for an operator
+    }
+}
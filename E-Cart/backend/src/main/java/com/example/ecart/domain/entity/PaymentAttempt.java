@@ -47,7 +47,7 @@ public class PaymentAttempt {
     }
 
     public enum PaymentStatus {
-        SUCCESS, FAILED
+        PENDING, SUCCESS, FAILED
     }
 }
 
@@ -14,6 +14,8 @@ import java.util.UUID;
 @Table(name = "products", uniqueConstraints = {
     @UniqueConstraint(columnNames = "product_id"),
     @UniqueConstraint(columnNames = "name")
+}, indexes = {
+    @Index(name = "idx_products_category", columnList = "category")
 })
 @Data
 @NoArgsConstructor
@@ -24,7 +26,8 @@ public class Product {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @Column(name = "product_id", unique = true, nullable = false, updatable = false, length = 3)
+    // Zero-padded to at least 3 digits: "001".."999", then "1000" and up (see ProductIdGenerator)
+    @Column(name = "product_id", unique = true, nullable = false, updatable = false, length = 32)
     private String productId;
 
     @Column(unique = true, nullable = false, length = 50)
@@ -42,7 +45,8 @@ public class Product {
     @Column(length = 200)
     private String description;
 
-    @Column(nullable = false)
+    // Only written on insert; stock changes go through InventoryService's guarded updates
+    @Column(nullable = false, updatable = false)
     @Builder.Default
     private Integer quantityAvailable = 0;
 
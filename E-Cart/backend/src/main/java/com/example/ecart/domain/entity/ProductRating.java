@@ -0,0 +1,48 @@
+package com.example.ecart.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Running rating totals per product, updated with each feedback insert so product responses
+// never scan the feedback table. Changed only through ProductRatingService's SQL updates.
+@Entity
+@Table(name = "product_ratings")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductRating {
+    @Id
+    @Column(name = "product_id")
+    private String productId;
+
+    @Column(nullable = false)
+    private Long ratingCount;
+
+    @Column(nullable = false)
+    private Long ratingSum;
+
+    // Histogram: number of 1-star to 5-star ratings
+    @Column(nullable = false)
+    private Long stars1;
+
+    @Column(nullable = false)
+    private Long stars2;
+
+    @Column(nullable = false)
+    private Long stars3;
+
+    @Column(nullable = false)
+    private Long stars4;
+
+    @Column(nullable = false)
+    private Long stars5;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
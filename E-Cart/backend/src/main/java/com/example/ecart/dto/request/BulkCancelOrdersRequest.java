@@ -0,0 +1,16 @@
+package com.example.ecart.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkCancelOrdersRequest {
+    @NotEmpty(message = "At least one order ID is required")
+    private List<String> orderIds;
+
+    @Size(max = 500, message = "Cancellation reason must not exceed 500 characters")
+    private String reason;
+}
@@ -0,0 +1,23 @@
+package com.example.ecart.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkCancelResponse {
+    private Integer requested;
+    private Integer cancelled;
+    private List<String> notFound;
+    private Map<String, String> notCancellable; // orderId -> current status
+    private Map<String, String> failed; // orderId -> error, for chunks that rolled back
+    private Map<String, Integer> restoredStock; // productId -> units returned
+    private Long elapsedMillis;
+}
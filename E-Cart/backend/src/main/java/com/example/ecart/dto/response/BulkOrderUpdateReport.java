@@ -0,0 +1,24 @@
+package com.example.ecart.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One per processed chunk, then a final one with done=true and the totals
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkOrderUpdateReport {
+    private Integer chunk; // null on the final report
+    private Integer firstLine;
+    private Integer lastLine;
+    private Integer rows;
+    private Integer updated;
+    private Integer rejected;
+    private List<String> errors; // Per rejected row; absent on the final report
+    private Boolean done;
+}
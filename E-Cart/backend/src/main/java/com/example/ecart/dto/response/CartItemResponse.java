@@ -0,0 +1,24 @@
+package com.example.ecart.dto.response;
+
+import com.example.ecart.domain.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartItemResponse {
+    private UUID id;
+    private String productId;
+    private String productName;
+    private BigDecimal price;
+    private Integer quantity;
+    private Product.ProductCategory category;
+    private String description;
+}
@@ -0,0 +1,19 @@
+package com.example.ecart.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeedbackSliceResponse {
+    private List<FeedbackResponse> content;
+    private Integer size;
+    private Boolean hasNext;
+    private String nextCursor; // Pass back as "after" to read the next slice
+}
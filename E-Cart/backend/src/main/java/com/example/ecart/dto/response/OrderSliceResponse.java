@@ -0,0 +1,20 @@
+package com.example.ecart.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSliceResponse {
+    private List<OrderResponse> content;
+    private Integer size;
+    private Boolean hasNext;
+    private String nextCursor; // Pass back as "after" to read the next slice
+    private Long totalElements; // Only when requested with withTotal=true
+}
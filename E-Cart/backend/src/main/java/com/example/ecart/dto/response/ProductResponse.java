@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -28,5 +29,8 @@ public class ProductResponse {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime deletedAt;
+    private Double averageRating; // null until the product is rated
+    private Long ratingCount;
+    private List<Long> ratingHistogram; // 1-star to 5-star counts, product detail only
 }
 
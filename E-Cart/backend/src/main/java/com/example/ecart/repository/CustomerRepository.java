@@ -1,10 +1,14 @@
 package com.example.ecart.repository;
 
 import com.example.ecart.domain.entity.Customer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,5 +18,11 @@ public interface CustomerRepository extends JpaRepository<Customer, UUID>, JpaSp
     Optional<Customer> findByEmail(String email);
     boolean existsByEmail(String email);
     boolean existsByCustomerId(String customerId);
+
+    // Customer ids with the prefix ordered numerically, highest first: a day's sequence outgrows
+    // its four digits ("CUST-...-10000" > "CUST-...-9999"), which a plain max() gets wrong
+    @Query("select c.customerId from Customer c where c.customerId like concat(:prefix, '%') " +
+            "order by length(c.customerId) desc, c.customerId desc")
+    List<String> findCustomerIdsWithPrefixHighestFirst(@Param("prefix") String prefix, Pageable pageable);
 }
 
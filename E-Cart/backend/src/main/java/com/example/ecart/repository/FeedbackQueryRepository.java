@@ -0,0 +1,21 @@
+package com.example.ecart.repository;
+
+import com.example.ecart.domain.entity.Feedback;
+import com.example.ecart.domain.entity.Product;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// Feedback on delivered orders with order, customer and product fetched in the same query.
+// productId and category are optional filters applied in SQL.
+public interface FeedbackQueryRepository {
+    // Newest first by (createdAt, id), strictly after the given position when one is given
+    List<Feedback> findDeliveredSlice(String productId, Product.ProductCategory category,
+                                      LocalDateTime afterCreatedAt, UUID afterId, int limit);
+
+    // Streams every match to sink without holding the result set in the persistence context;
+    // must run inside a transaction
+    void streamDelivered(String productId, Product.ProductCategory category, Consumer<Feedback> sink);
+}
@@ -0,0 +1,82 @@
+package com.example.ecart.repository;
+
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.Feedback;
+import com.example.ecart.domain.entity.Order;
+import com.example.ecart.domain.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class FeedbackQueryRepositoryImpl implements FeedbackQueryRepository {
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Feedback> findDeliveredSlice(String productId, Product.ProductCategory category,
+                                             LocalDateTime afterCreatedAt, UUID afterId, int limit) {
+        return buildQuery(productId, category, afterCreatedAt, afterId).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public void streamDelivered(String productId, Product.ProductCategory category, Consumer<Feedback> sink) {
+        int read = 0;
+        try (Stream<Feedback> rows = buildQuery(productId, category, null, null)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            for (Feedback feedback : (Iterable<Feedback>) rows::iterator) {
+                sink.accept(feedback);
+                if (++read % STREAM_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypedQuery<Feedback> buildQuery(String productId, Product.ProductCategory category,
+                                            LocalDateTime afterCreatedAt, UUID afterId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Feedback> query = cb.createQuery(Feedback.class);
+        Root<Feedback> root = query.from(Feedback.class);
+        // Fetches double as joins for the filters below
+        Join<Feedback, Order> order = (Join<Feedback, Order>) root.<Feedback, Order>fetch("order");
+        root.<Feedback, Customer>fetch("customer");
+        Join<Feedback, Product> product = (Join<Feedback, Product>) root.<Feedback, Product>fetch("product");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(order.get("status"), Order.OrderStatus.DELIVERED));
+        if (productId != null && !productId.isEmpty()) {
+            predicates.add(cb.equal(product.get("productId"), productId));
+        }
+        if (category != null) {
+            predicates.add(cb.equal(product.get("category"), category));
+        }
+        if (afterCreatedAt != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(root.get("createdAt"), afterCreatedAt),
+                    cb.and(cb.equal(root.get("createdAt"), afterCreatedAt), cb.lessThan(root.<UUID>get("id"), afterId))));
+        }
+
+        query.select(root)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get("id")));
+        return entityManager.createQuery(query);
+    }
+}
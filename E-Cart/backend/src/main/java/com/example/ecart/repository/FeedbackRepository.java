@@ -1,9 +1,12 @@
 package com.example.ecart.repository;
 
+import com.example.ecart.domain.entity.Customer;
 import com.example.ecart.domain.entity.Feedback;
 import com.example.ecart.domain.entity.Order;
 import com.example.ecart.domain.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,10 +14,15 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface FeedbackRepository extends JpaRepository<Feedback, UUID> {
+public interface FeedbackRepository extends JpaRepository<Feedback, UUID>, FeedbackQueryRepository {
     Optional<Feedback> findByOrder(Order order);
     List<Feedback> findAllByOrderStatus(Order.OrderStatus status);
     List<Feedback> findByProduct(Product product);
     List<Feedback> findByProductProductId(String productId);
+
+    // Served by the unique (order_id, product_id, customer_id) index
+    @Query("select count(f) > 0 from Feedback f where f.order = :order and f.product = :product and f.customer = :customer")
+    boolean existsByOrderAndProductAndCustomer(@Param("order") Order order, @Param("product") Product product,
+                                               @Param("customer") Customer customer);
 }
 
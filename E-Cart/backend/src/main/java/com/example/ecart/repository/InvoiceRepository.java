@@ -2,9 +2,15 @@ package com.example.ecart.repository;
 
 import com.example.ecart.domain.entity.Invoice;
 import com.example.ecart.domain.entity.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,5 +18,26 @@ import java.util.UUID;
 public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
     Optional<Invoice> findByOrder(Order order);
     Optional<Invoice> findByOrderId(UUID orderId);
+    Optional<Invoice> findByOrderOrderId(String orderId);
+
+    // Keyset page of invoices issued in [from, to), oldest first
+    @Query("select i.id as id, i.order.orderId as orderId, i.pdfSha256 as pdfSha256, i.timestamp as timestamp " +
+            "from Invoice i where i.timestamp >= :from and i.timestamp < :to " +
+            "and (i.timestamp > :afterTimestamp or (i.timestamp = :afterTimestamp and i.id > :afterId)) " +
+            "order by i.timestamp, i.id")
+    List<ExportRow> findExportRows(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                   @Param("afterTimestamp") LocalDateTime afterTimestamp, @Param("afterId") UUID afterId,
+                                   Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Invoice i SET i.pdfSha256 = :pdfSha256 WHERE i.id = :id")
+    int updatePdfSha256(@Param("id") UUID id, @Param("pdfSha256") String pdfSha256);
+
+    interface ExportRow {
+        UUID getId();
+        String getOrderId();
+        String getPdfSha256();
+        LocalDateTime getTimestamp();
+    }
 }
 
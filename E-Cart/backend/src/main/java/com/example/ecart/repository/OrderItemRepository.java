@@ -3,13 +3,34 @@ package com.example.ecart.repository;
 import com.example.ecart.domain.entity.Order;
 import com.example.ecart.domain.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
     List<OrderItem> findByOrder(Order order);
+
+    boolean existsByOrderAndProductProductId(Order order, String productId);
+
+    @Query("select i from OrderItem i join fetch i.product where i.order.id in :orderIds")
+    List<OrderItem> findWithProductByOrderIdIn(@Param("orderIds") Collection<UUID> orderIds);
+
+    @Query("select i.product.productId as productId, sum(i.quantity) as quantity from OrderItem i " +
+            "where i.order = :order group by i.product.productId")
+    List<ProductQuantity> sumQuantitiesByOrder(@Param("order") Order order);
+
+    @Query("select i.product.productId as productId, sum(i.quantity) as quantity from OrderItem i " +
+            "where i.order.id in :orderIds group by i.product.productId")
+    List<ProductQuantity> sumQuantitiesByOrderIdIn(@Param("orderIds") Collection<UUID> orderIds);
+
+    interface ProductQuantity {
+        String getProductId();
+        Long getQuantity();
+    }
 }
 
@@ -0,0 +1,14 @@
+package com.example.ecart.repository;
+
+import com.example.ecart.domain.entity.Order;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface OrderKeysetRepository {
+    // Orders matching spec, newest first by (createdAt, id), strictly after the given position
+    // when one is given. Reads at most limit rows and runs no count query.
+    List<Order> findNextSlice(Specification<Order> spec, LocalDateTime afterCreatedAt, UUID afterId, int limit);
+}
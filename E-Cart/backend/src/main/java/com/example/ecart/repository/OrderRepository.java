@@ -2,17 +2,29 @@ package com.example.ecart.repository;
 
 import com.example.ecart.domain.entity.Customer;
 import com.example.ecart.domain.entity.Order;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecificationExecutor<Order> {
+public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecificationExecutor<Order>, OrderKeysetRepository {
     Optional<Order> findByOrderId(String orderId);
     java.util.List<Order> findByCustomer(Customer customer);
     boolean existsByOrderId(String orderId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.orderId = :orderId")
+    Optional<Order> findByOrderIdForUpdate(@Param("orderId") String orderId);
+
+    @Query("select o from Order o join fetch o.customer where o.id in :ids")
+    java.util.List<Order> findWithCustomerByIdIn(@Param("ids") Collection<UUID> ids);
 }
 
@@ -0,0 +1,13 @@
+package com.example.ecart.repository;
+
+import com.example.ecart.domain.entity.OrderView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface OrderViewRepository extends JpaRepository<OrderView, UUID> {
+    Optional<OrderView> findByOrderId(String orderId);
+}
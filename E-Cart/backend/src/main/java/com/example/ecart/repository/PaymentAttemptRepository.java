@@ -1,12 +1,15 @@
 package com.example.ecart.repository;
 
+import com.example.ecart.domain.entity.Order;
 import com.example.ecart.domain.entity.PaymentAttempt;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface PaymentAttemptRepository extends JpaRepository<PaymentAttempt, UUID> {
+    List<PaymentAttempt> findByOrderAndStatus(Order order, PaymentAttempt.PaymentStatus status);
 }
 
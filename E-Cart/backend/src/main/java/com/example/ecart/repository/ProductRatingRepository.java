@@ -0,0 +1,9 @@
+package com.example.ecart.repository;
+
+import com.example.ecart.domain.entity.ProductRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductRatingRepository extends JpaRepository<ProductRating, String> {
+}
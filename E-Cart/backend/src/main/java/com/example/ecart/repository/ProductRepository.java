@@ -5,8 +5,12 @@ import com.example.ecart.domain.entity.Product.ProductStatus;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,7 +22,21 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
     boolean existsByName(String name);
     long count();
 
+    // Product ids ordered numerically, highest first: longer ids are larger ("1000" > "999"),
+    // which a plain max() over the strings gets wrong
+    @Query("select p.productId from Product p order by length(p.productId) desc, p.productId desc")
+    List<String> findProductIdsHighestFirst(Pageable pageable);
+
     List<Product> findByStatusAndSoftDeletedFalseAndQuantityAvailableGreaterThan(
             ProductStatus status, Integer quantity, Pageable pageable);
-}
 
+    List<Product> findByProductIdIn(Collection<String> productIds);
+
+    @Query("select p.productId as productId, p.updatedAt as updatedAt from Product p where p.productId in :productIds")
+    List<ProductVersion> findVersionsByProductIdIn(@Param("productIds") Collection<String> productIds);
+
+    interface ProductVersion {
+        String getProductId();
+        LocalDateTime getUpdatedAt();
+    }
+}
@@ -0,0 +1,420 @@
+package com.example.ecart.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+// Append-only, memory-mapped journal of cart mutations with compacted snapshots.
+// Records carry the resulting quantity of a line (not a delta), so replaying a
+// journal over a snapshot that already contains some of its records is harmless.
+//
+// Appends reserve their bytes with one atomic add on the active segment and then write them
+// without holding a lock, so customers never queue behind each other. Records of one customer
+// are appended under that customer's cart lock and therefore land in order. The journal has
+// two segments: compaction switches appends to the empty one and snapshots the live state
+// while they continue, then clears the old segment.
+@Component
+public class CartJournal {
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final byte OP_CLEAR = 3;
+
+    private static final int SNAPSHOT_MAGIC = 0x45435331; // "ECS1"
+    private static final int SEGMENT_HEADER = 8; // generation
+    private static final int RECORD_HEADER = 8; // payload length + crc32
+    private static final int MAX_PAYLOAD = 1024;
+    // A kill can leave several reserved but unwritten records in a row; replay looks this far
+    // past a bad record for the next good one
+    private static final int RESYNC_WINDOW = 64 * 1024;
+    private static final byte[] ZEROS = new byte[64 * 1024];
+
+    @Value("${cart.journal.dir:./data/cart-journal}")
+    private String journalDir;
+
+    @Value("${cart.journal.size-mb:64}")
+    private int journalSizeMb;
+
+    @Value("${cart.journal.compact-after:100000}")
+    private int compactAfter;
+
+    private Path snapshotFile;
+    private final Segment[] segments = new Segment[2];
+    private volatile Segment active;
+    private Supplier<Map<String, Map<String, Integer>>> stateSupplier;
+
+    // Appends hold the read side while they write a record; only the segment switch takes the
+    // write side, so a compaction waits for records in flight but never for the snapshot
+    private final StampedLock switchLock = new StampedLock();
+    private final Object compactLock = new Object();
+
+    // Opens the journal and returns the carts recovered from the last snapshot plus both segments.
+    // The supplier is used later to take compacted snapshots of the live cart state.
+    public Map<String, Map<String, Integer>> open(Supplier<Map<String, Map<String, Integer>>> stateSupplier) {
+        synchronized (compactLock) {
+            this.stateSupplier = stateSupplier;
+            try {
+                Path dir = Paths.get(journalDir);
+                Files.createDirectories(dir);
+                snapshotFile = dir.resolve("cart.snapshot");
+
+                Map<String, Map<String, Integer>> carts = readSnapshot();
+
+                long size = (long) journalSizeMb * 1024 * 1024;
+                segments[0] = new Segment(dir.resolve("cart-0.journal"), size);
+                segments[1] = new Segment(dir.resolve("cart-1.journal"), size);
+                Segment older = segments[0].generation <= segments[1].generation ? segments[0] : segments[1];
+                Segment newer = other(older);
+                older.replay(carts);
+                newer.replay(carts);
+
+                if (!older.isEmpty()) {
+                    // A compaction was cut short before it cleared the older segment
+                    writeSnapshot(carts);
+                    older.reset();
+                }
+                if (newer.generation <= older.generation) {
+                    newer.begin(older.generation + 1);
+                }
+                active = newer;
+                return carts;
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to open cart journal", e);
+            }
+        }
+    }
+
+    public void recordPut(String customerId, String productId, int quantity) {
+        append(OP_PUT, customerId, productId, quantity);
+    }
+
+    public void recordRemove(String customerId, String productId) {
+        append(OP_REMOVE, customerId, productId, 0);
+    }
+
+    public void recordClear(String customerId) {
+        append(OP_CLEAR, customerId, "", 0);
+    }
+
+    private void append(byte op, String customerId, String productId, int quantity) {
+        byte[] customer = customerId.getBytes(StandardCharsets.UTF_8);
+        byte[] product = productId.getBytes(StandardCharsets.UTF_8);
+        int payloadLength = 1 + 2 + customer.length + 2 + product.length + 4;
+        if (payloadLength > MAX_PAYLOAD) {
+            throw new RuntimeException("Cart journal record too large");
+        }
+        int recordLength = RECORD_HEADER + payloadLength;
+
+        while (true) {
+            Segment segment;
+            boolean written = false;
+            long stamp = switchLock.readLock();
+            try {
+                segment = active;
+                int start = segment.tail.getAndAdd(recordLength);
+                if (start + recordLength <= segment.limit) {
+                    segment.write(start, op, customer, product, quantity, payloadLength);
+                    written = true;
+                }
+            } finally {
+                switchLock.unlockRead(stamp);
+            }
+
+            if (written) {
+                if (segment.records.incrementAndGet() == compactAfter) {
+                    compact(segment);
+                }
+                return;
+            }
+            // Segment full: switch to the other one, or wait for the compaction doing so already
+            compact(segment);
+        }
+    }
+
+    // Writes the live state as a snapshot and truncates the journal
+    public void compact() {
+        compact(active);
+    }
+
+    private void compact(Segment full) {
+        if (active != full) {
+            return;
+        }
+        synchronized (compactLock) {
+            if (active != full || stateSupplier == null) {
+                return;
+            }
+            try {
+                Segment next = other(full);
+                if (!next.isEmpty()) {
+                    // The previous compaction failed before clearing it
+                    writeSnapshot(stateSupplier.get());
+                    next.reset();
+                }
+                next.begin(full.generation + 1);
+
+                long stamp = switchLock.writeLock();
+                try {
+                    active = next;
+                } finally {
+                    switchLock.unlockWrite(stamp);
+                }
+
+                // Every record of the full segment was applied to the carts before it was written,
+                // so the snapshot covers them; records arriving meanwhile go to the next segment
+                writeSnapshot(stateSupplier.get());
+                full.reset();
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to compact cart journal", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (compactLock) {
+            long stamp = switchLock.writeLock();
+            try {
+                for (Segment segment : segments) {
+                    if (segment != null) {
+                        segment.close();
+                    }
+                }
+            } finally {
+                switchLock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    private Segment other(Segment segment) {
+        return segment == segments[0] ? segments[1] : segments[0];
+    }
+
+    private static void apply(Map<String, Map<String, Integer>> carts, ByteBufferPayload payload) {
+        byte op = payload.getByte();
+        String customerId = payload.getString();
+        String productId = payload.getString();
+        int quantity = payload.getInt();
+
+        switch (op) {
+            case OP_PUT:
+                carts.computeIfAbsent(customerId, k -> new ConcurrentHashMap<>()).put(productId, quantity);
+                break;
+            case OP_REMOVE:
+                Map<String, Integer> cart = carts.get(customerId);
+                if (cart != null) {
+                    cart.remove(productId);
+                }
+                break;
+            case OP_CLEAR:
+                carts.remove(customerId);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private Map<String, Map<String, Integer>> readSnapshot() throws IOException {
+        Map<String, Map<String, Integer>> carts = new HashMap<>();
+        if (!Files.exists(snapshotFile)) {
+            return carts;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Unrecognised cart snapshot");
+            }
+            int customers = in.readInt();
+            for (int i = 0; i < customers; i++) {
+                String customerId = in.readUTF();
+                int lines = in.readInt();
+                Map<String, Integer> cart = new ConcurrentHashMap<>();
+                for (int j = 0; j < lines; j++) {
+                    cart.put(in.readUTF(), in.readInt());
+                }
+                carts.put(customerId, cart);
+            }
+        }
+        return carts;
+    }
+
+    private void writeSnapshot(Map<String, Map<String, Integer>> carts) throws IOException {
+        Path tmp = snapshotFile.resolveSibling("cart.snapshot.tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(carts.size());
+            for (Map.Entry<String, Map<String, Integer>> cart : carts.entrySet()) {
+                out.writeUTF(cart.getKey());
+                out.writeInt(cart.getValue().size());
+                for (Map.Entry<String, Integer> line : cart.getValue().entrySet()) {
+                    out.writeUTF(line.getKey());
+                    out.writeInt(line.getValue());
+                }
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        }
+        Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // One journal file: a generation number followed by records. The older generation is
+    // replayed first on startup.
+    private static final class Segment {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int limit;
+        private final AtomicInteger tail = new AtomicInteger(SEGMENT_HEADER);
+        private final AtomicInteger records = new AtomicInteger();
+        private long generation;
+
+        Segment(Path file, long size) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            limit = buffer.capacity();
+            generation = buffer.getLong(0);
+        }
+
+        // Writes one record into bytes reserved by the caller. Only absolute puts are used, so
+        // concurrent writers into disjoint ranges do not interfere.
+        void write(int start, byte op, byte[] customer, byte[] product, int quantity, int payloadLength) {
+            ByteBufferPayload payload = new ByteBufferPayload(buffer, start + RECORD_HEADER);
+            payload.putByte(op);
+            payload.putBytes(customer);
+            payload.putBytes(product);
+            payload.putInt(quantity);
+
+            // Length is written last, so a process killed mid-record leaves a zero length behind
+            buffer.putInt(start + 4, crc(start + RECORD_HEADER, payloadLength));
+            buffer.putInt(start, payloadLength);
+        }
+
+        void replay(Map<String, Map<String, Integer>> carts) {
+            int position = SEGMENT_HEADER;
+            int end = position;
+            while (position + RECORD_HEADER <= limit && position - end <= RESYNC_WINDOW) {
+                if (isRecord(position)) {
+                    apply(carts, new ByteBufferPayload(buffer, position + RECORD_HEADER));
+                    position += RECORD_HEADER + buffer.getInt(position);
+                    end = position;
+                    records.incrementAndGet();
+                } else {
+                    // Torn or never written, e.g. an append killed while later ones completed
+                    position++;
+                }
+            }
+
+            // Clear whatever torn writes left behind the last good record
+            int tornEnd = Math.min(limit, end + RESYNC_WINDOW + RECORD_HEADER + MAX_PAYLOAD);
+            for (int i = end; i < tornEnd; i++) {
+                if (buffer.get(i) != 0) {
+                    buffer.put(i, (byte) 0);
+                }
+            }
+            tail.set(end);
+        }
+
+        boolean isEmpty() {
+            return tail.get() == SEGMENT_HEADER;
+        }
+
+        void begin(long generation) {
+            this.generation = generation;
+            buffer.putLong(0, generation);
+            buffer.force();
+        }
+
+        // Zeroes the records once a snapshot holds them
+        void reset() {
+            int used = Math.min(tail.get(), limit);
+            for (int position = SEGMENT_HEADER; position < used; position += ZEROS.length) {
+                buffer.put(position, ZEROS, 0, Math.min(ZEROS.length, used - position));
+            }
+            buffer.force();
+            tail.set(SEGMENT_HEADER);
+            records.set(0);
+        }
+
+        void close() {
+            buffer.force();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing left to flush
+            }
+        }
+
+        private boolean isRecord(int position) {
+            int payloadLength = buffer.getInt(position);
+            return payloadLength > 0 && payloadLength <= MAX_PAYLOAD
+                    && position + RECORD_HEADER + payloadLength <= limit
+                    && buffer.getInt(position + 4) == crc(position + RECORD_HEADER, payloadLength);
+        }
+
+        private int crc(int offset, int length) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(offset, length));
+            return (int) crc.getValue();
+        }
+    }
+
+    // Absolute-offset cursor over a mapped buffer, leaving its position untouched
+    private static final class ByteBufferPayload {
+        private final MappedByteBuffer buffer;
+        private int offset;
+
+        ByteBufferPayload(MappedByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        void putByte(byte value) {
+            buffer.put(offset, value);
+            offset += 1;
+        }
+
+        void putInt(int value) {
+            buffer.putInt(offset, value);
+            offset += 4;
+        }
+
+        void putBytes(byte[] value) {
+            buffer.putShort(offset, (short) value.length);
+            buffer.put(offset + 2, value);
+            offset += 2 + value.length;
+        }
+
+        byte getByte() {
+            return buffer.get(offset++);
+        }
+
+        int getInt() {
+            int value = buffer.getInt(offset);
+            offset += 4;
+            return value;
+        }
+
+        String getString() {
+            int length = buffer.getShort(offset);
+            byte[] bytes = new byte[length];
+            buffer.get(offset + 2, bytes);
+            offset += 2 + length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
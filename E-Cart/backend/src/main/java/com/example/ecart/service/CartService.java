@@ -2,26 +2,91 @@ package com.example.ecart.service;
 
 import com.example.ecart.domain.entity.Customer;
 import com.example.ecart.domain.entity.Product;
-import com.example.ecart.dto.response.ProductResponse;
+import com.example.ecart.dto.response.CartItemResponse;
 import com.example.ecart.repository.CustomerRepository;
 import com.example.ecart.repository.ProductRepository;
+import com.example.ecart.util.TimingWheel;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class CartService {
-    // In-memory cart storage (in production, use Redis or database)
+    // In-memory cart storage, made durable by the cart journal
     private final Map<String, Map<String, Integer>> customerCarts = new ConcurrentHashMap<>();
 
+    // Carts moved to disk by the resident limit, restored on their next access
+    private final Set<String> spilledCustomers = ConcurrentHashMap.newKeySet();
+
+    // Last access per customer holding a cart, resident or spilled. Touches only update this
+    // map; the expiry wheel re-checks it when an entry fires and reschedules if needed.
+    private final Map<String, Long> lastAccess = new ConcurrentHashMap<>();
+
+    // Per-customer lock stripes. Every change to a customer's entry in customerCarts, and the
+    // journal record describing it, happens under that customer's stripe, so the journal
+    // order matches the order in which the changes took effect.
+    private static final int LOCK_STRIPES = 1024;
+    private final Object[] locks = Stream.generate(Object::new).limit(LOCK_STRIPES).toArray();
+
+    private final AtomicLong expiredCarts = new AtomicLong();
+    private final AtomicLong spilledCarts = new AtomicLong();
+    private final AtomicLong restoredCarts = new AtomicLong();
+
+    private TimingWheel<String> expiryWheel;
+
+    @Value("${cart.store.idle-ttl-minutes:10080}")
+    private long idleTtlMinutes;
+
+    @Value("${cart.store.max-resident:100000}")
+    private int maxResidentCarts;
+
+    @Value("${cart.store.tick-ms:60000}")
+    private long tickMillis;
+
     @Autowired
     private CustomerRepository customerRepository;
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CartJournal cartJournal;
+
+    @Autowired
+    private CartViewService cartViewService;
+
+    @Autowired
+    private CartSpillStore cartSpillStore;
+
+    @Autowired
+    private InventoryReservationService inventoryReservationService;
+
+    @PostConstruct
+    public void restoreCarts() {
+        customerCarts.putAll(cartJournal.open(this::copyCarts));
+        for (String customerId : cartSpillStore.listSpilled()) {
+            if (customerCarts.containsKey(customerId)) {
+                // Still in the journal tail, which holds the same lines as the spill file
+                cartSpillStore.delete(customerId);
+            } else {
+                spilledCustomers.add(customerId);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        expiryWheel = new TimingWheel<>(tickMillis, now);
+        customerCarts.keySet().forEach(customerId -> touch(customerId, now));
+        spilledCustomers.forEach(customerId -> touch(customerId, now));
+    }
+
     public void addToCart(String customerId, String productId, Integer quantity) {
         Customer customer = customerRepository.findByCustomerId(customerId)
                 .orElseThrow(() -> new RuntimeException("Customer not found"));
@@ -37,13 +102,17 @@ public class CartService {
             throw new RuntimeException("Product limit exceeded");
         }
 
-        customerCarts.computeIfAbsent(customerId, k -> new HashMap<>())
-                .merge(productId, quantity, Integer::sum);
+        mutateCart(customerId, true, cart -> {
+            int newQuantity = cart.getOrDefault(productId, 0) + quantity;
+            inventoryReservationService.reserve(customerId, productId, newQuantity, product.getQuantityAvailable());
+            cart.put(productId, newQuantity);
+            cartJournal.recordPut(customerId, productId, newQuantity);
+        });
     }
 
     public void updateCartItem(String customerId, String productId, Integer quantity) {
-        Map<String, Integer> cart = customerCarts.get(customerId);
-        if (cart == null || !cart.containsKey(productId)) {
+        Map<String, Integer> current = currentCart(customerId, false);
+        if (current == null || !current.containsKey(productId)) {
             throw new RuntimeException("Product not found in cart");
         }
 
@@ -54,45 +123,234 @@ public class CartService {
             throw new RuntimeException("Product limit exceeded");
         }
 
-        if (quantity <= 0) {
+        mutateCart(customerId, false, cart -> {
+            // Re-checked under the lock: a concurrent remove may have won the race
+            if (cart == null || !cart.containsKey(productId)) {
+                throw new RuntimeException("Product not found in cart");
+            }
+            if (quantity <= 0) {
+                cart.remove(productId);
+                cartJournal.recordRemove(customerId, productId);
+                inventoryReservationService.release(customerId, productId);
+            } else {
+                inventoryReservationService.reserve(customerId, productId, quantity, product.getQuantityAvailable());
+                cart.put(productId, quantity);
+                cartJournal.recordPut(customerId, productId, quantity);
+            }
+        });
+    }
+
+    public void removeFromCart(String customerId, String productId) {
+        mutateCart(customerId, false, cart -> {
+            if (cart == null || !cart.containsKey(productId)) {
+                throw new RuntimeException("Unable to delete product any further: Minimum quantity reached");
+            }
             cart.remove(productId);
-        } else {
-            cart.put(productId, quantity);
+            cartJournal.recordRemove(customerId, productId);
+            inventoryReservationService.release(customerId, productId);
+        });
+    }
+
+    public List<CartItemResponse> getCart(String customerId) {
+        Map<String, Integer> cart = currentCart(customerId, false);
+        if (cart == null) {
+            return new ArrayList<>();
         }
+        touch(customerId, System.currentTimeMillis());
+        return cartViewService.buildCartView(new HashMap<>(cart));
     }
 
-    public void removeFromCart(String customerId, String productId) {
+    // Raw productId -> quantity lines, for callers that load the products themselves
+    public Map<String, Integer> getCartQuantities(String customerId) {
+        Map<String, Integer> cart = currentCart(customerId, false);
+        if (cart == null) {
+            return new HashMap<>();
+        }
+        touch(customerId, System.currentTimeMillis());
+        return new HashMap<>(cart);
+    }
+
+    public void clearCart(String customerId) {
+        synchronized (lockFor(customerId)) {
+            Map<String, Integer> cart = customerCarts.remove(customerId);
+            if (cart == null) {
+                discardSpilled(customerId);
+                return;
+            }
+            cartJournal.recordClear(customerId);
+            inventoryReservationService.release(customerId, cart.keySet());
+        }
+    }
+
+    public Map<String, Long> getStoreMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("residentCarts", (long) customerCarts.size());
+        metrics.put("spilledCarts", (long) spilledCustomers.size());
+        metrics.put("expiredTotal", expiredCarts.get());
+        metrics.put("spilledTotal", spilledCarts.get());
+        metrics.put("restoredTotal", restoredCarts.get());
+        return metrics;
+    }
+
+    @Scheduled(fixedDelayString = "${cart.store.tick-ms:60000}")
+    public void expireAndSpill() {
+        long now = System.currentTimeMillis();
+        List<String> due;
+        synchronized (expiryWheel) {
+            due = expiryWheel.advance(now);
+        }
+        for (String customerId : due) {
+            expireIfIdle(customerId, now);
+        }
+        spillColdCarts();
+    }
+
+    // Serializes mutations per customer on the customer's lock stripe. The cart is looked up,
+    // created or restored under the same lock a clear holds, so an add racing a clear either
+    // lands in the cleared cart before its CLEAR record or in a new cart journaled after it.
+    private void mutateCart(String customerId, boolean createIfAbsent, Consumer<Map<String, Integer>> mutation) {
+        synchronized (lockFor(customerId)) {
+            Map<String, Integer> cart = currentCart(customerId, createIfAbsent);
+            if (cart != null) {
+                touch(customerId, System.currentTimeMillis());
+            }
+            mutation.accept(cart);
+        }
+    }
+
+    private Object lockFor(String customerId) {
+        return locks[customerId.hashCode() & (LOCK_STRIPES - 1)];
+    }
+
+    // Resident cart for the customer, restoring a spilled one first. A spill marks the customer
+    // as spilled before dropping the map, so a miss here always sees the spill marker.
+    private Map<String, Integer> currentCart(String customerId, boolean createIfAbsent) {
         Map<String, Integer> cart = customerCarts.get(customerId);
-        if (cart == null || !cart.containsKey(productId)) {
-            throw new RuntimeException("Unable to delete product any further: Minimum quantity reached");
-        }
-        cart.remove(productId);
-    }
-
-    public List<Map<String, Object>> getCart(String customerId) {
-        Map<String, Integer> cart = customerCarts.getOrDefault(customerId, new HashMap<>());
-        List<Map<String, Object>> cartItems = new ArrayList<>();
-
-        for (Map.Entry<String, Integer> entry : cart.entrySet()) {
-            Product product = productRepository.findByProductId(entry.getKey())
-                    .orElse(null);
-            if (product != null) {
-                Map<String, Object> item = new HashMap<>();
-                item.put("productId", product.getProductId());
-                item.put("productName", product.getName());
-                item.put("price", product.getPrice());
-                item.put("quantity", entry.getValue());
-                item.put("category", product.getCategory());
-                item.put("description", product.getDescription());
-                cartItems.add(item);
+        if (cart == null && spilledCustomers.contains(customerId)) {
+            cart = restoreSpilled(customerId);
+        }
+        if (cart == null && createIfAbsent) {
+            cart = customerCarts.computeIfAbsent(customerId, k -> new ConcurrentHashMap<>());
+        }
+        return cart;
+    }
+
+    private Map<String, Integer> restoreSpilled(String customerId) {
+        synchronized (lockFor(customerId)) {
+            Map<String, Integer> existing = customerCarts.get(customerId);
+            if (existing != null || !spilledCustomers.contains(customerId)) {
+                return existing;
+            }
+            Map<String, Integer> cart = cartSpillStore.read(customerId);
+            // Published before it is re-journaled, so a compaction that runs meanwhile already
+            // sees the cart in memory
+            customerCarts.put(customerId, cart);
+            cart.forEach((productId, quantity) -> cartJournal.recordPut(customerId, productId, quantity));
+            cartSpillStore.delete(customerId);
+            spilledCustomers.remove(customerId);
+            restoredCarts.incrementAndGet();
+            return cart;
+        }
+    }
+
+    private boolean discardSpilled(String customerId) {
+        synchronized (lockFor(customerId)) {
+            if (customerCarts.containsKey(customerId) || !spilledCustomers.remove(customerId)) {
+                return false;
             }
+            // Read before the file goes, so its holds are released like a resident cart's
+            Map<String, Integer> cart = cartSpillStore.read(customerId);
+            cartSpillStore.delete(customerId);
+            // Earlier records for this customer may still sit in the journal tail
+            cartJournal.recordClear(customerId);
+            inventoryReservationService.release(customerId, cart.keySet());
+            return true;
         }
+    }
 
-        return cartItems;
+    private void touch(String customerId, long now) {
+        if (lastAccess.put(customerId, now) == null) {
+            synchronized (expiryWheel) {
+                expiryWheel.schedule(customerId, now + idleTtlMillis());
+            }
+        }
     }
 
-    public void clearCart(String customerId) {
-        customerCarts.remove(customerId);
+    private void expireIfIdle(String customerId, long now) {
+        boolean expired;
+        // Checked under the customer's lock, so an add that touches the cart meanwhile either
+        // reschedules it or waits for the expiry to finish
+        synchronized (lockFor(customerId)) {
+            Long last = lastAccess.get(customerId);
+            if (last == null) {
+                return;
+            }
+            long deadline = last + idleTtlMillis();
+            if (deadline > now || !lastAccess.remove(customerId, last)) {
+                // Touched since it was scheduled
+                synchronized (expiryWheel) {
+                    expiryWheel.schedule(customerId, Math.max(deadline, now + tickMillis));
+                }
+                return;
+            }
+
+            Map<String, Integer> cart = customerCarts.remove(customerId);
+            if (cart == null) {
+                expired = discardSpilled(customerId);
+            } else {
+                expired = true;
+                cartJournal.recordClear(customerId);
+                inventoryReservationService.release(customerId, cart.keySet());
+            }
+        }
+        if (expired) {
+            expiredCarts.incrementAndGet();
+        }
+    }
+
+    // Moves the least recently used carts above the resident limit to disk
+    private void spillColdCarts() {
+        int excess = customerCarts.size() - maxResidentCarts;
+        if (excess <= 0) {
+            return;
+        }
+        PriorityQueue<Map.Entry<String, Long>> coldest =
+                new PriorityQueue<>(excess, (a, b) -> Long.compare(b.getValue(), a.getValue()));
+        for (String customerId : customerCarts.keySet()) {
+            long last = lastAccess.getOrDefault(customerId, 0L);
+            if (coldest.size() < excess) {
+                coldest.add(Map.entry(customerId, last));
+            } else if (last < coldest.peek().getValue()) {
+                coldest.poll();
+                coldest.add(Map.entry(customerId, last));
+            }
+        }
+        for (Map.Entry<String, Long> entry : coldest) {
+            spill(entry.getKey());
+        }
+    }
+
+    private void spill(String customerId) {
+        synchronized (lockFor(customerId)) {
+            Map<String, Integer> cart = customerCarts.get(customerId);
+            if (cart == null) {
+                return;
+            }
+            cartSpillStore.write(customerId, cart);
+            spilledCustomers.add(customerId);
+            customerCarts.remove(customerId, cart);
+        }
+        spilledCarts.incrementAndGet();
+    }
+
+    private long idleTtlMillis() {
+        return idleTtlMinutes * 60_000L;
+    }
+
+    private Map<String, Map<String, Integer>> copyCarts() {
+        Map<String, Map<String, Integer>> copy = new HashMap<>();
+        customerCarts.forEach((customerId, cart) -> copy.put(customerId, new HashMap<>(cart)));
+        return copy;
     }
 }
 
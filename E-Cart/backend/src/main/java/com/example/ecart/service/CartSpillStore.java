@@ -0,0 +1,101 @@
+package com.example.ecart.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One file per cold cart, evicted from memory by the resident cart limit
+@Component
+public class CartSpillStore {
+    private static final String SUFFIX = ".cart";
+
+    @Value("${cart.store.spill-dir:./data/cart-spill}")
+    private String spillDir;
+
+    private Path dir;
+
+    @PostConstruct
+    public void init() {
+        try {
+            dir = Paths.get(spillDir);
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create cart spill directory", e);
+        }
+    }
+
+    public Set<String> listSpilled() {
+        Set<String> customerIds = new HashSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String encoded = name.substring(0, name.length() - SUFFIX.length());
+                customerIds.add(new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to list spilled carts", e);
+        }
+        return customerIds;
+    }
+
+    public void write(String customerId, Map<String, Integer> cart) {
+        Path file = fileFor(customerId);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(cart.size());
+            for (Map.Entry<String, Integer> line : cart.entrySet()) {
+                out.writeUTF(line.getKey());
+                out.writeInt(line.getValue());
+            }
+            out.flush();
+            // The journal may compact this cart away, so the file has to be durable on its own
+            fileOut.getFD().sync();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to spill cart", e);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to spill cart", e);
+        }
+    }
+
+    public Map<String, Integer> read(String customerId) {
+        Map<String, Integer> cart = new ConcurrentHashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(fileFor(customerId))))) {
+            int lines = in.readInt();
+            for (int i = 0; i < lines; i++) {
+                cart.put(in.readUTF(), in.readInt());
+            }
+        } catch (NoSuchFileException e) {
+            return cart;
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read spilled cart", e);
+        }
+        return cart;
+    }
+
+    public void delete(String customerId) {
+        try {
+            Files.deleteIfExists(fileFor(customerId));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to delete spilled cart", e);
+        }
+    }
+
+    private Path fileFor(String customerId) {
+        String encoded = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(customerId.getBytes(StandardCharsets.UTF_8));
+        return dir.resolve(encoded + SUFFIX);
+    }
+}
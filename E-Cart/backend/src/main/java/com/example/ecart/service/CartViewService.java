@@ -0,0 +1,122 @@
+package com.example.ecart.service;
+
+import com.example.ecart.domain.entity.OutboxEvent;
+import com.example.ecart.domain.entity.Product;
+import com.example.ecart.dto.response.CartItemResponse;
+import com.example.ecart.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class CartViewService implements OutboxSubscriber {
+    // Last seen copy of each product that has appeared in a cart, keyed by productId
+    private final Map<String, ProductSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    // Builds cart lines with one version query; only products whose updatedAt moved are reloaded
+    public List<CartItemResponse> buildCartView(Map<String, Integer> cart) {
+        List<CartItemResponse> items = new ArrayList<>(cart.size());
+        if (cart.isEmpty()) {
+            return items;
+        }
+
+        Map<String, LocalDateTime> versions = new HashMap<>();
+        List<String> stale = new ArrayList<>();
+        for (ProductRepository.ProductVersion version : productRepository.findVersionsByProductIdIn(cart.keySet())) {
+            versions.put(version.getProductId(), version.getUpdatedAt());
+            ProductSnapshot snapshot = snapshots.get(version.getProductId());
+            if (snapshot == null || !snapshot.updatedAt.equals(version.getUpdatedAt())) {
+                stale.add(version.getProductId());
+            }
+        }
+
+        if (!stale.isEmpty()) {
+            reload(stale);
+        }
+
+        for (Map.Entry<String, Integer> line : cart.entrySet()) {
+            ProductSnapshot snapshot = snapshots.get(line.getKey());
+            // Lines whose product no longer exists are skipped, as before
+            if (snapshot != null && versions.containsKey(line.getKey())) {
+                items.add(snapshot.toItem(line.getKey(), line.getValue()));
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public String getName() {
+        return "cart-view-snapshots";
+    }
+
+    @Override
+    public boolean supports(OutboxEvent.EventType eventType) {
+        return eventType == OutboxEvent.EventType.STOCK_CHANGED;
+    }
+
+    // Stock changes bump products.updated_at; refreshing the cached copies here keeps the
+    // reload off the next cart request
+    @Override
+    @SuppressWarnings("unchecked")
+    public void handle(OutboxEvent event) {
+        Map<String, Object> payload = outboxService.readPayload(event, Map.class);
+        Map<String, Object> deltas = (Map<String, Object>) payload.get("deltas");
+        List<String> cached = new ArrayList<>();
+        for (String productId : deltas.keySet()) {
+            if (snapshots.containsKey(productId)) {
+                cached.add(productId);
+            }
+        }
+        if (!cached.isEmpty()) {
+            reload(cached);
+        }
+    }
+
+    private void reload(Collection<String> productIds) {
+        for (Product product : productRepository.findByProductIdIn(productIds)) {
+            ProductSnapshot fresh = new ProductSnapshot(product);
+            snapshots.merge(product.getProductId(), fresh,
+                    (current, candidate) -> candidate.updatedAt.isBefore(current.updatedAt) ? current : candidate);
+        }
+    }
+
+    private static final class ProductSnapshot {
+        private final UUID id;
+        private final LocalDateTime updatedAt;
+        private final String name;
+        private final BigDecimal price;
+        private final Product.ProductCategory category;
+        private final String description;
+
+        private ProductSnapshot(Product product) {
+            this.id = product.getId();
+            this.updatedAt = product.getUpdatedAt();
+            this.name = product.getName();
+            this.price = product.getPrice();
+            this.category = product.getCategory();
+            this.description = product.getDescription();
+        }
+
+        private CartItemResponse toItem(String productId, Integer quantity) {
+            return CartItemResponse.builder()
+                    .id(id)
+                    .productId(productId)
+                    .productName(name)
+                    .price(price)
+                    .quantity(quantity)
+                    .category(category)
+                    .description(description)
+                    .build();
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
@@ -19,6 +20,9 @@ public class CustomerService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private OrderViewService orderViewService;
+
     public CustomerResponse getCustomerByCustomerId(String customerId) {
         Customer customer = customerRepository.findByCustomerId(customerId)
                 .orElseThrow(() -> new RuntimeException("Customer not found"));
@@ -35,6 +39,7 @@ public class CustomerService {
             throw new RuntimeException("Email already exists");
         }
 
+        boolean renamed = !Objects.equals(customer.getName(), request.getName());
         customer.setName(request.getName());
         customer.setCountry(request.getCountry());
         customer.setState(request.getState());
@@ -62,6 +67,9 @@ public class CustomerService {
         }
 
         customer = customerRepository.save(customer);
+        if (renamed) {
+            orderViewService.refreshCustomer(customer);
+        }
         return mapToResponse(customer);
     }
 
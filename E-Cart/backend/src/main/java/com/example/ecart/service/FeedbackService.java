@@ -0,0 +1,129 @@
+package com.example.ecart.service;
+
+import com.example.ecart.domain.entity.Feedback;
+import com.example.ecart.domain.entity.Product;
+import com.example.ecart.dto.response.FeedbackResponse;
+import com.example.ecart.dto.response.FeedbackSliceResponse;
+import com.example.ecart.repository.FeedbackRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// Admin feedback reads. Every variant is one query with order, customer and product fetched
+// alongside, filtered on productId and category in SQL.
+@Service
+public class FeedbackService {
+    private static final int MAX_SLICE_SIZE = 100;
+    private static final String CSV_HEADER =
+            "orderId,customerId,customerName,productId,productName,productCategory,rating,createdAt,description\n";
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Transactional(readOnly = true)
+    public List<FeedbackResponse> getFeedback(String productId, Product.ProductCategory category) {
+        List<FeedbackResponse> responses = new ArrayList<>();
+        feedbackRepository.streamDelivered(productId, category, feedback -> responses.add(mapToResponse(feedback)));
+        return responses;
+    }
+
+    // Keyset variant: "after" is the nextCursor of the previous slice, absent for the first one
+    @Transactional(readOnly = true)
+    public FeedbackSliceResponse getFeedbackSlice(String productId, Product.ProductCategory category, String after, int size) {
+        LocalDateTime afterCreatedAt = null;
+        UUID afterId = null;
+        if (after != null && !after.isEmpty()) {
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8).split(",");
+                afterCreatedAt = LocalDateTime.parse(position[0]);
+                afterId = UUID.fromString(position[1]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+
+        int limit = Math.min(Math.max(size, 1), MAX_SLICE_SIZE);
+        List<Feedback> rows = feedbackRepository.findDeliveredSlice(productId, category, afterCreatedAt, afterId, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        if (hasNext) {
+            rows = rows.subList(0, limit);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            Feedback last = rows.get(rows.size() - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (last.getCreatedAt() + "," + last.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        return FeedbackSliceResponse.builder()
+                .content(rows.stream().map(this::mapToResponse).collect(Collectors.toList()))
+                .size(limit)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // Writes the full result as CSV row by row, newest first
+    @Transactional(readOnly = true)
+    public void exportCsv(String productId, Product.ProductCategory category, Writer out) throws IOException {
+        out.write(CSV_HEADER);
+        try {
+            feedbackRepository.streamDelivered(productId, category, feedback -> {
+                try {
+                    out.write(String.join(",",
+                            csv(feedback.getOrder().getOrderId()),
+                            csv(feedback.getCustomer().getCustomerId()),
+                            csv(feedback.getCustomer().getName()),
+                            csv(feedback.getProduct().getProductId()),
+                            csv(feedback.getProduct().getName()),
+                            csv(feedback.getProduct().getCategory().name()),
+                            String.valueOf(feedback.getRating()),
+                            csv(feedback.getCreatedAt().toString()),
+                            csv(feedback.getDescription())));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    private FeedbackResponse mapToResponse(Feedback feedback) {
+        return FeedbackResponse.builder()
+                .orderId(feedback.getOrder().getOrderId())
+                .customerId(feedback.getCustomer().getCustomerId())
+                .customerName(feedback.getCustomer().getName())
+                .productId(feedback.getProduct().getProductId())
+                .productName(feedback.getProduct().getName())
+                .productCategory(feedback.getProduct().getCategory())
+                .description(feedback.getDescription())
+                .rating(feedback.getRating())
+                .createdAt(feedback.getCreatedAt())
+                .build();
+    }
+
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
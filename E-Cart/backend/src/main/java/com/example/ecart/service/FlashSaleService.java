@@ -0,0 +1,354 @@
+package com.example.ecart.service;
+
+import com.example.ecart.domain.entity.FlashSaleCheckpoint;
+import com.example.ecart.repository.FlashSaleCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Flash-sale mode: stock of selected products is held in striped in-memory counters instead of
+// the products row, so checkouts of one hot product no longer queue on a single database row.
+// Every change is logged to the flash-sale WAL first and written back to quantity_available in
+// batches; after a crash the unapplied WAL segments are replayed onto the table.
+@Service
+public class FlashSaleService {
+    private static final int CHECKPOINT_ID = 1;
+    private static final int CELL_PADDING = 16; // ints per stripe, one cache line each
+    private static final int DRAIN_ROUNDS = 3;
+
+    private final Map<String, FlashStock> activeProducts = new ConcurrentHashMap<>();
+
+    // Checkouts and cancellations hold the read lock for their whole transaction; switching a
+    // product in or out of flash-sale mode takes the write lock, so no stock change straddles it
+    private final ReentrantReadWriteLock modeLock = new ReentrantReadWriteLock();
+    private final Object transactionKey = new Object();
+
+    // Sealed segments whose write-back failed, retried on the next cycle
+    private final Deque<FlashSaleWal.Segment> unappliedSegments = new ArrayDeque<>();
+
+    @Value("${flash-sale.dir:./data/flash-sale}")
+    private String flashSaleDir;
+
+    @Autowired
+    private FlashSaleWal flashSaleWal;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private FlashSaleCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void recover() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        long appliedEpoch = checkpointRepository.findById(CHECKPOINT_ID)
+                .map(FlashSaleCheckpoint::getAppliedEpoch)
+                .orElse(0L);
+        flashSaleWal.open(appliedEpoch).forEach(this::writeBack);
+
+        for (String productId : readActiveProducts()) {
+            activate(productId);
+        }
+    }
+
+    public boolean isActive(String productId) {
+        return activeProducts.containsKey(productId);
+    }
+
+    // productId -> units currently available in the counters
+    public Map<String, Integer> getActiveProducts() {
+        Map<String, Integer> status = new TreeMap<>();
+        activeProducts.forEach((productId, stock) -> status.put(productId, stock.available()));
+        return status;
+    }
+
+    public void enable(String productId) {
+        modeLock.writeLock().lock();
+        try {
+            if (activeProducts.containsKey(productId)) {
+                return;
+            }
+            // Earlier flash-sale deltas for this product must be in the row before it is read
+            flush();
+            activate(productId);
+            writeActiveProducts();
+        } finally {
+            modeLock.writeLock().unlock();
+        }
+    }
+
+    public void disable(String productId) {
+        modeLock.writeLock().lock();
+        try {
+            if (activeProducts.remove(productId) == null) {
+                return;
+            }
+            flush();
+            writeActiveProducts();
+        } finally {
+            modeLock.writeLock().unlock();
+        }
+    }
+
+    // Called inside the checkout transaction. Takes the flash-sale lines from the counters and
+    // removes them from quantities, leaving the lines that go to the database. Returns the
+    // productIds that ran out; their units are given back if the transaction rolls back.
+    public List<String> takeFlashStock(Map<String, Integer> quantities) {
+        TransactionContext context = joinTransaction();
+        List<String> insufficient = new ArrayList<>();
+        if (activeProducts.isEmpty()) {
+            return insufficient;
+        }
+
+        Iterator<Map.Entry<String, Integer>> lines = quantities.entrySet().iterator();
+        while (lines.hasNext()) {
+            Map.Entry<String, Integer> line = lines.next();
+            FlashStock stock = activeProducts.get(line.getKey());
+            if (stock == null) {
+                continue;
+            }
+            lines.remove();
+            if (stock.take(line.getValue())) {
+                context.logged = flashSaleWal.append(line.getKey(), -line.getValue());
+                context.taken.merge(line.getKey(), line.getValue(), Integer::sum);
+            } else {
+                insufficient.add(line.getKey());
+            }
+        }
+        return insufficient;
+    }
+
+    // Called inside a cancellation. Removes the flash-sale lines from quantities; their units are
+    // logged just before the transaction commits and return to the counters once it has.
+    public void restoreFlashStock(Map<String, Integer> quantities) {
+        TransactionContext context = joinTransaction();
+        if (activeProducts.isEmpty()) {
+            return;
+        }
+        Iterator<Map.Entry<String, Integer>> lines = quantities.entrySet().iterator();
+        while (lines.hasNext()) {
+            Map.Entry<String, Integer> line = lines.next();
+            if (activeProducts.containsKey(line.getKey())) {
+                context.restored.merge(line.getKey(), line.getValue(), Integer::sum);
+                lines.remove();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${flash-sale.flush-ms:200}")
+    public synchronized void flush() {
+        FlashSaleWal.Segment sealed = flashSaleWal.rotate();
+        if (sealed != null) {
+            unappliedSegments.add(sealed);
+        }
+        while (!unappliedSegments.isEmpty()) {
+            FlashSaleWal.Segment segment = unappliedSegments.peek();
+            writeBack(segment.getEpoch(), segment.getDeltas());
+            unappliedSegments.poll();
+        }
+    }
+
+    // Applies a segment and records its epoch in one transaction, so replay never applies it twice
+    private void writeBack(long epoch, Map<String, Integer> deltas) {
+        transactionTemplate.executeWithoutResult(status -> {
+            inventoryService.incrementAll(deltas);
+            checkpointRepository.save(new FlashSaleCheckpoint(CHECKPOINT_ID, epoch));
+        });
+        flashSaleWal.delete(epoch);
+    }
+
+    private void activate(String productId) {
+        Integer stock = jdbcTemplate.query("SELECT quantity_available FROM products WHERE product_id = ?",
+                rs -> rs.next() ? rs.getInt(1) : null, productId);
+        if (stock == null) {
+            throw new RuntimeException("Product not found");
+        }
+        activeProducts.put(productId, new FlashStock(stock));
+    }
+
+    private void giveBack(String productId, int quantity) {
+        flashSaleWal.append(productId, quantity);
+        returnToCounters(productId, quantity);
+    }
+
+    // Units go back to the counters only while the product is still in flash-sale mode;
+    // otherwise the logged delta reaches the row through the next write-back
+    private void returnToCounters(String productId, int quantity) {
+        FlashStock stock = activeProducts.get(productId);
+        if (stock != null) {
+            stock.give(quantity);
+        }
+    }
+
+    private TransactionContext joinTransaction() {
+        TransactionContext existing = (TransactionContext) TransactionSynchronizationManager.getResource(transactionKey);
+        if (existing != null) {
+            return existing;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new RuntimeException("Stock changes require a transaction");
+        }
+
+        TransactionContext context = new TransactionContext();
+        modeLock.readLock().lock();
+        TransactionSynchronizationManager.bindResource(transactionKey, context);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            // The order rows must not commit before the stock changes they imply are on disk
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                context.restored.forEach((productId, quantity) ->
+                        context.logged = flashSaleWal.append(productId, quantity));
+                context.restoreLogged = !context.restored.isEmpty();
+                if (context.logged > 0) {
+                    flashSaleWal.sync(context.logged);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(transactionKey);
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        context.restored.forEach(FlashSaleService.this::returnToCounters);
+                    } else if (status == STATUS_ROLLED_BACK) {
+                        context.taken.forEach(FlashSaleService.this::giveBack);
+                        if (context.restoreLogged) {
+                            // The commit failed after the restoration was logged
+                            context.restored.forEach((productId, quantity) -> flashSaleWal.append(productId, -quantity));
+                        }
+                    }
+                } finally {
+                    modeLock.readLock().unlock();
+                }
+            }
+        });
+        return context;
+    }
+
+    private Set<String> readActiveProducts() {
+        Path file = Paths.get(flashSaleDir, "active-products");
+        try {
+            if (!Files.exists(file)) {
+                return new TreeSet<>();
+            }
+            Set<String> productIds = new TreeSet<>(Files.readAllLines(file));
+            productIds.remove("");
+            return productIds;
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read flash-sale products", e);
+        }
+    }
+
+    private void writeActiveProducts() {
+        Path file = Paths.get(flashSaleDir, "active-products");
+        Path tmp = Paths.get(flashSaleDir, "active-products.tmp");
+        try {
+            Files.write(tmp, new TreeSet<>(activeProducts.keySet()));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to save flash-sale products", e);
+        }
+    }
+
+    private static final class TransactionContext {
+        private final Map<String, Integer> taken = new HashMap<>();
+        private final Map<String, Integer> restored = new HashMap<>();
+        private long logged; // sequence of the transaction's last WAL record
+        private boolean restoreLogged;
+    }
+
+    // Stock split over per-thread-stripe cells plus a shared reserve. A taker only touches its own
+    // cell until it runs dry, then refills from the reserve in chunks; when the reserve is empty too,
+    // the other cells are drained back into it before giving up. Units only ever move between
+    // non-negative counters with CAS, so the total can never go below zero.
+    private static final class FlashStock {
+        private final AtomicIntegerArray cells;
+        private final AtomicInteger reserve;
+        private final int stripeMask;
+        private final int refillChunk;
+
+        private FlashStock(int stock) {
+            int processors = Runtime.getRuntime().availableProcessors();
+            int stripes = Integer.highestOneBit(processors);
+            if (stripes < processors) {
+                stripes <<= 1;
+            }
+            this.stripeMask = stripes - 1;
+            this.cells = new AtomicIntegerArray(stripes * CELL_PADDING);
+            this.reserve = new AtomicInteger(Math.max(stock, 0));
+            this.refillChunk = Math.max(1, stock / (stripes * 8));
+        }
+
+        private boolean take(int quantity) {
+            int cell = ((int) Thread.currentThread().getId() & stripeMask) * CELL_PADDING;
+            for (int round = 0; round < DRAIN_ROUNDS; round++) {
+                while (true) {
+                    int current = cells.get(cell);
+                    if (current >= quantity) {
+                        if (cells.compareAndSet(cell, current, current - quantity)) {
+                            return true;
+                        }
+                        continue;
+                    }
+                    int available = reserve.get();
+                    if (available == 0) {
+                        break;
+                    }
+                    int grab = Math.min(available, Math.max(quantity - current, refillChunk));
+                    if (reserve.compareAndSet(available, available - grab)) {
+                        cells.addAndGet(cell, grab);
+                    }
+                }
+                drainCells();
+            }
+            return false;
+        }
+
+        private void give(int quantity) {
+            reserve.addAndGet(quantity);
+        }
+
+        private int available() {
+            int total = reserve.get();
+            for (int i = 0; i < cells.length(); i += CELL_PADDING) {
+                total += cells.get(i);
+            }
+            return total;
+        }
+
+        private void drainCells() {
+            for (int i = 0; i < cells.length(); i += CELL_PADDING) {
+                int units = cells.getAndSet(i, 0);
+                if (units > 0) {
+                    reserve.addAndGet(units);
+                }
+            }
+        }
+    }
+}
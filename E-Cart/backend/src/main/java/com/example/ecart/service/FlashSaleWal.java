@@ -0,0 +1,214 @@
+package com.example.ecart.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+// Write-ahead log of flash-sale stock deltas that have not reached the products table yet.
+// Each write-back cycle closes the current segment and starts a new one; a segment is deleted
+// once its deltas are committed, so the log only ever covers the last few hundred milliseconds.
+// Transactions make their records durable with sync before they commit; one fsync covers every
+// transaction waiting at that moment (group commit).
+@Component
+public class FlashSaleWal {
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".wal";
+
+    @Value("${flash-sale.dir:./data/flash-sale}")
+    private String walDir;
+
+    private Path dir;
+    private FileChannel channel;
+    private long epoch;
+    private int records;
+    private Map<String, Integer> pending = new HashMap<>();
+
+    // Sequence number of the last record appended, and of the last one known to be on disk
+    private long appended;
+    private final AtomicLong forced = new AtomicLong();
+    private final Object forceLock = new Object();
+
+    // Opens a fresh segment and returns the deltas of older segments newer than appliedEpoch,
+    // keyed by epoch. Segments at or below appliedEpoch were already written back and are dropped.
+    public synchronized Map<Long, Map<String, Integer>> open(long appliedEpoch) {
+        Map<Long, Map<String, Integer>> unapplied = new TreeMap<>();
+        try {
+            dir = Paths.get(walDir);
+            Files.createDirectories(dir);
+            long lastEpoch = appliedEpoch;
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    long segmentEpoch = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+                    lastEpoch = Math.max(lastEpoch, segmentEpoch);
+                    if (segmentEpoch <= appliedEpoch) {
+                        Files.delete(file);
+                    } else {
+                        unapplied.put(segmentEpoch, readSegment(file));
+                    }
+                }
+            }
+            epoch = lastEpoch + 1;
+            channel = openSegment(epoch);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to open flash-sale log", e);
+        }
+        return unapplied;
+    }
+
+    // Written straight through to the OS, so the record survives a crash of this process; it
+    // survives a crash of the host once sync has covered the returned sequence number
+    public synchronized long append(String productId, int delta) {
+        byte[] product = productId.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(4 + 2 + product.length + 4 + 4);
+        record.putInt(2 + product.length + 4);
+        record.putShort((short) product.length).put(product).putInt(delta);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, 2 + product.length + 4);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write flash-sale log", e);
+        }
+        pending.merge(productId, delta, Integer::sum);
+        records++;
+        return ++appended;
+    }
+
+    // Forces the log up to sequence. A caller arriving while another force runs waits for it and
+    // usually finds its record covered, so concurrent commits share one fsync.
+    public void sync(long sequence) {
+        if (forced.get() >= sequence) {
+            return;
+        }
+        synchronized (forceLock) {
+            if (forced.get() >= sequence) {
+                return;
+            }
+            FileChannel current;
+            long target;
+            synchronized (this) {
+                current = channel;
+                target = appended;
+            }
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // Rotated meanwhile, and rotation forces the segment before closing it
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to sync flash-sale log", e);
+            }
+            forced.accumulateAndGet(target, Math::max);
+        }
+    }
+
+    // Seals the current segment and starts the next one; returns null when nothing was logged
+    public synchronized Segment rotate() {
+        if (records == 0) {
+            return null;
+        }
+        Segment sealed = new Segment(epoch, pending);
+        try {
+            channel.force(false);
+            forced.accumulateAndGet(appended, Math::max);
+            channel.close();
+            epoch++;
+            channel = openSegment(epoch);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to rotate flash-sale log", e);
+        }
+        pending = new HashMap<>();
+        records = 0;
+        return sealed;
+    }
+
+    public void delete(long segmentEpoch) {
+        try {
+            Files.deleteIfExists(segmentFile(segmentEpoch));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to delete flash-sale log segment", e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        try {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (IOException e) {
+            // Records already reached the OS on append
+        }
+    }
+
+    private FileChannel openSegment(long segmentEpoch) throws IOException {
+        return FileChannel.open(segmentFile(segmentEpoch),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentFile(long segmentEpoch) {
+        return dir.resolve(PREFIX + segmentEpoch + SUFFIX);
+    }
+
+    // Sums the intact records of a segment; a torn record ends it
+    private Map<String, Integer> readSegment(Path file) throws IOException {
+        Map<String, Integer> deltas = new HashMap<>();
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        while (data.remaining() >= 4) {
+            int length = data.getInt();
+            if (length < 6 || data.remaining() < length + 4) {
+                break;
+            }
+            int start = data.position();
+            CRC32 crc = new CRC32();
+            crc.update(data.array(), start, length);
+            short productLength = data.getShort();
+            if (productLength < 0 || productLength + 6 != length) {
+                break;
+            }
+            byte[] product = new byte[productLength];
+            data.get(product);
+            int delta = data.getInt();
+            if (data.getInt() != (int) crc.getValue()) {
+                break;
+            }
+            deltas.merge(new String(product, StandardCharsets.UTF_8), delta, Integer::sum);
+        }
+        return deltas;
+    }
+
+    public static final class Segment {
+        private final long epoch;
+        private final Map<String, Integer> deltas;
+
+        private Segment(long epoch, Map<String, Integer> deltas) {
+            this.epoch = epoch;
+            this.deltas = deltas;
+        }
+
+        public long getEpoch() {
+            return epoch;
+        }
+
+        public Map<String, Integer> getDeltas() {
+            return deltas;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.ecart.service;
+
+import com.example.ecart.domain.entity.IdempotencyRecord;
+import com.example.ecart.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+// Idempotency-Key support for checkout and payment. The first request with a key runs the
+// operation and stores its response in the same transaction; retries get the stored response.
+// Recent responses are also kept in memory, and a duplicate that arrives while the first
+// request is still running waits for its result instead of running the operation again.
+@Service
+public class IdempotencyService {
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.memory-ttl-minutes:10}")
+    private long memoryTtlMinutes;
+
+    @Value("${idempotency.wait-seconds:30}")
+    private long waitSeconds;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Runs action at most once per (customerId, key) and returns its JSON response. Reusing a key
+    // for a different request is rejected. Failed operations are not stored, so they can be retried.
+    public Result execute(String customerId, String key, String operation, Object request, Supplier<?> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Invalid Idempotency-Key");
+        }
+        String requestHash = hash(operation, request);
+        String cacheKey = customerId + '\n' + key;
+
+        while (true) {
+            Entry entry = new Entry();
+            Entry existing = entries.putIfAbsent(cacheKey, entry);
+            if (existing != null) {
+                if (existing.expiresAt <= System.currentTimeMillis()) {
+                    entries.remove(cacheKey, existing);
+                    continue;
+                }
+                return replay(await(existing), requestHash);
+            }
+
+            Stored stored;
+            try {
+                stored = load(customerId, key);
+                if (stored == null) {
+                    stored = run(customerId, key, operation, requestHash, action);
+                }
+            } catch (RuntimeException e) {
+                entries.remove(cacheKey, entry);
+                entry.future.completeExceptionally(e);
+                throw e;
+            }
+            entry.expiresAt = System.currentTimeMillis() + memoryTtlMinutes * 60_000L;
+            entry.future.complete(stored);
+            return stored.replayed ? replay(stored, requestHash) : new Result(stored.body, false);
+        }
+    }
+
+    // Variant for operations that complete asynchronously and manage their own transactions, such as
+    // payments. The response is stored in its own transaction once the operation has finished, so the
+    // operation itself must also refuse to run twice (a payment checks the order is not already paid).
+    public CompletableFuture<Result> executeAsync(String customerId, String key, String operation, Object request,
+                                                  Supplier<CompletableFuture<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Invalid Idempotency-Key");
+        }
+        String requestHash = hash(operation, request);
+        String cacheKey = customerId + '\n' + key;
+
+        while (true) {
+            Entry entry = new Entry();
+            Entry existing = entries.putIfAbsent(cacheKey, entry);
+            if (existing != null) {
+                if (existing.expiresAt <= System.currentTimeMillis()) {
+                    entries.remove(cacheKey, existing);
+                    continue;
+                }
+                return existing.future
+                        .orTimeout(waitSeconds, TimeUnit.SECONDS)
+                        .handle((stored, error) -> {
+                            if (error == null) {
+                                return replay(stored, requestHash);
+                            }
+                            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                            if (cause instanceof TimeoutException) {
+                                throw new RuntimeException("A request with this Idempotency-Key is still in progress");
+                            }
+                            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+                        });
+            }
+
+            CompletableFuture<?> running;
+            try {
+                Stored stored = load(customerId, key);
+                if (stored != null) {
+                    entry.expiresAt = System.currentTimeMillis() + memoryTtlMinutes * 60_000L;
+                    entry.future.complete(stored);
+                    return CompletableFuture.completedFuture(replay(stored, requestHash));
+                }
+                running = action.get();
+            } catch (RuntimeException e) {
+                entries.remove(cacheKey, entry);
+                entry.future.completeExceptionally(e);
+                throw e;
+            }
+
+            return running.handle((response, error) -> {
+                Stored stored;
+                try {
+                    if (error != null) {
+                        throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+                    }
+                    stored = store(customerId, key, operation, requestHash, toJson(response));
+                } catch (RuntimeException e) {
+                    entries.remove(cacheKey, entry);
+                    entry.future.completeExceptionally(e);
+                    throw e;
+                }
+                entry.expiresAt = System.currentTimeMillis() + memoryTtlMinutes * 60_000L;
+                entry.future.complete(stored);
+                return stored.replayed ? replay(stored, requestHash) : new Result(stored.body, false);
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-ms:60000}")
+    public void purge() {
+        long now = System.currentTimeMillis();
+        entries.entrySet().removeIf(e -> e.getValue().expiresAt <= now);
+        transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+    }
+
+    private Stored run(String customerId, String key, String operation, String requestHash, Supplier<?> action) {
+        try {
+            // Flushed inside the operation's transaction, so a concurrent first request on another
+            // instance fails this whole transaction
+            return transactionTemplate.execute(status -> insert(customerId, key, operation, requestHash, toJson(action.get())));
+        } catch (DataIntegrityViolationException e) {
+            return winner(customerId, key, e);
+        }
+    }
+
+    private Stored store(String customerId, String key, String operation, String requestHash, byte[] body) {
+        try {
+            return transactionTemplate.execute(status -> insert(customerId, key, operation, requestHash, body));
+        } catch (DataIntegrityViolationException e) {
+            return winner(customerId, key, e);
+        }
+    }
+
+    private Stored insert(String customerId, String key, String operation, String requestHash, byte[] body) {
+        idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                .customerId(customerId)
+                .idempotencyKey(key)
+                .operation(operation)
+                .requestHash(requestHash)
+                .responseBody(new String(body, StandardCharsets.UTF_8))
+                .expiresAt(LocalDateTime.now().plusHours(ttlHours))
+                .build());
+        return new Stored(requestHash, body, false);
+    }
+
+    private Stored winner(String customerId, String key, DataIntegrityViolationException e) {
+        Stored winner = load(customerId, key);
+        if (winner == null) {
+            throw e;
+        }
+        return winner;
+    }
+
+    // Stored response from the database; an expired one is removed so the key can be used again
+    private Stored load(String customerId, String key) {
+        IdempotencyRecord record = idempotencyRecordRepository.findByCustomerIdAndIdempotencyKey(customerId, key).orElse(null);
+        if (record == null) {
+            return null;
+        }
+        if (!record.getExpiresAt().isAfter(LocalDateTime.now())) {
+            transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.deleteById(record.getId()));
+            return null;
+        }
+        return new Stored(record.getRequestHash(), record.getResponseBody().getBytes(StandardCharsets.UTF_8), true);
+    }
+
+    private Stored await(Entry entry) {
+        try {
+            return entry.future.get(waitSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("A request with this Idempotency-Key is still in progress");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private Result replay(Stored stored, String requestHash) {
+        if (!stored.requestHash.equals(requestHash)) {
+            throw new RuntimeException("Idempotency-Key was already used for a different request");
+        }
+        return new Result(stored.body, true);
+    }
+
+    private String hash(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(toJson(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unable to serialize response", e);
+        }
+    }
+
+    public static final class Result {
+        private final byte[] body;
+        private final boolean replayed;
+
+        private Result(byte[] body, boolean replayed) {
+            this.body = body;
+            this.replayed = replayed;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+
+    private static final class Stored {
+        private final String requestHash;
+        private final byte[] body;
+        private final boolean replayed; // response of an earlier request, not of this call's operation
+
+        private Stored(String requestHash, byte[] body, boolean replayed) {
+            this.requestHash = requestHash;
+            this.body = body;
+            this.replayed = replayed;
+        }
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<Stored> future = new CompletableFuture<>();
+        private volatile long expiresAt = Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.ecart.service;
+
+import com.example.ecart.util.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+// Time-limited stock holds taken when items are added to a cart. Holds live in memory,
+// sharded by productId so unrelated products never contend, and are snapshotted to disk
+// periodically. Stock is only decremented at checkout; until then a hold keeps other
+// customers from claiming the same units.
+@Service
+public class InventoryReservationService {
+    private static final int SHARDS = 32;
+    private static final int SNAPSHOT_MAGIC = 0x45494831; // "EIH1"
+
+    private final Shard[] shards = new Shard[SHARDS];
+
+    private TimingWheel<HoldKey> expiryWheel;
+
+    @Value("${inventory.holds.ttl-minutes:15}")
+    private long holdTtlMinutes;
+
+    @Value("${inventory.holds.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${inventory.holds.snapshot-file:./data/inventory-holds.snapshot}")
+    private String snapshotFile;
+
+    @PostConstruct
+    public void restoreHolds() {
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard();
+        }
+        long now = System.currentTimeMillis();
+        expiryWheel = new TimingWheel<>(tickMillis, now);
+
+        Path file = Paths.get(snapshotFile);
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Unrecognised hold snapshot");
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String productId = in.readUTF();
+                String customerId = in.readUTF();
+                int quantity = in.readInt();
+                long expiresAt = in.readLong();
+                if (expiresAt > now) {
+                    shardFor(productId).put(productId, customerId, new Hold(quantity, expiresAt));
+                    schedule(new HoldKey(productId, customerId), expiresAt);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to restore inventory holds", e);
+        }
+    }
+
+    // Sets the customer's hold on a product to the given cart quantity, refreshing its expiry.
+    // quantityAvailable is the stock just read from the product row.
+    public void reserve(String customerId, String productId, int quantity, int quantityAvailable) {
+        long expiresAt = System.currentTimeMillis() + holdTtlMillis();
+        Shard shard = shardFor(productId);
+        boolean created;
+        synchronized (shard) {
+            Hold current = shard.get(productId, customerId);
+            int heldByOthers = shard.held(productId) - (current == null ? 0 : current.quantity);
+            if (quantityAvailable - heldByOthers < quantity) {
+                throw new RuntimeException("Product limit exceeded");
+            }
+            shard.put(productId, customerId, new Hold(quantity, expiresAt));
+            created = current == null;
+        }
+        // Existing holds are already in the wheel and pick up the new expiry when they fire
+        if (created) {
+            schedule(new HoldKey(productId, customerId), expiresAt);
+        }
+    }
+
+    public void release(String customerId, String productId) {
+        Shard shard = shardFor(productId);
+        synchronized (shard) {
+            shard.remove(productId, customerId);
+        }
+    }
+
+    public void release(String customerId, Collection<String> productIds) {
+        for (String productId : productIds) {
+            release(customerId, productId);
+        }
+    }
+
+    // Stock the product row must still have for this customer to take quantity units: just the
+    // quantity when their hold covers it, otherwise also whatever other customers are holding
+    public int requiredStock(String customerId, String productId, int quantity) {
+        Shard shard = shardFor(productId);
+        synchronized (shard) {
+            Hold hold = shard.get(productId, customerId);
+            if (hold != null && hold.quantity >= quantity) {
+                return quantity;
+            }
+            return quantity + shard.held(productId) - (hold == null ? 0 : hold.quantity);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.holds.tick-ms:1000}")
+    public void expireHolds() {
+        long now = System.currentTimeMillis();
+        List<HoldKey> due;
+        synchronized (expiryWheel) {
+            due = expiryWheel.advance(now);
+        }
+        for (HoldKey key : due) {
+            Shard shard = shardFor(key.productId);
+            Long rescheduleAt = null;
+            synchronized (shard) {
+                Hold hold = shard.get(key.productId, key.customerId);
+                if (hold != null) {
+                    if (hold.expiresAt <= now) {
+                        shard.remove(key.productId, key.customerId);
+                    } else {
+                        rescheduleAt = hold.expiresAt;
+                    }
+                }
+            }
+            if (rescheduleAt != null) {
+                schedule(key, rescheduleAt);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.holds.persist-ms:30000}")
+    public void persistHolds() {
+        List<Object[]> entries = new ArrayList<>();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.holds.forEach((productId, holds) -> holds.forEach((customerId, hold) ->
+                        entries.add(new Object[]{productId, customerId, hold})));
+            }
+        }
+
+        Path file = Paths.get(snapshotFile);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(entries.size());
+                for (Object[] entry : entries) {
+                    Hold hold = (Hold) entry[2];
+                    out.writeUTF((String) entry[0]);
+                    out.writeUTF((String) entry[1]);
+                    out.writeInt(hold.quantity);
+                    out.writeLong(hold.expiresAt);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to persist inventory holds", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        persistHolds();
+    }
+
+    private void schedule(HoldKey key, long expiresAt) {
+        synchronized (expiryWheel) {
+            expiryWheel.schedule(key, expiresAt);
+        }
+    }
+
+    private Shard shardFor(String productId) {
+        return shards[(productId.hashCode() & 0x7fffffff) % SHARDS];
+    }
+
+    private long holdTtlMillis() {
+        return holdTtlMinutes * 60_000L;
+    }
+
+    // Holds per product and customer, with a running total per product
+    private static final class Shard {
+        private final Map<String, Map<String, Hold>> holds = new HashMap<>();
+        private final Map<String, Integer> totals = new HashMap<>();
+
+        Hold get(String productId, String customerId) {
+            Map<String, Hold> productHolds = holds.get(productId);
+            return productHolds == null ? null : productHolds.get(customerId);
+        }
+
+        int held(String productId) {
+            return totals.getOrDefault(productId, 0);
+        }
+
+        void put(String productId, String customerId, Hold hold) {
+            Hold previous = holds.computeIfAbsent(productId, k -> new HashMap<>()).put(customerId, hold);
+            totals.merge(productId, hold.quantity - (previous == null ? 0 : previous.quantity), Integer::sum);
+        }
+
+        void remove(String productId, String customerId) {
+            Map<String, Hold> productHolds = holds.get(productId);
+            if (productHolds == null) {
+                return;
+            }
+            Hold removed = productHolds.remove(customerId);
+            if (removed == null) {
+                return;
+            }
+            if (productHolds.isEmpty()) {
+                holds.remove(productId);
+                totals.remove(productId);
+            } else {
+                totals.merge(productId, -removed.quantity, Integer::sum);
+            }
+        }
+    }
+
+    private static final class Hold {
+        private final int quantity;
+        private final long expiresAt;
+
+        private Hold(int quantity, long expiresAt) {
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class HoldKey {
+        private final String productId;
+        private final String customerId;
+
+        private HoldKey(String productId, String customerId) {
+            this.productId = productId;
+            this.customerId = customerId;
+        }
+    }
+}
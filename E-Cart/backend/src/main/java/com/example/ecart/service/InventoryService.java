@@ -0,0 +1,82 @@
+package com.example.ecart.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Every change to products.quantity_available goes through here as a single SQL statement,
+// so concurrent checkouts and cancellations never read-modify-write the stock in Java.
+// Product.quantityAvailable is not updatable through the entity for the same reason.
+@Service
+public class InventoryService {
+    private static final String DECREMENT_SQL =
+            "UPDATE products SET quantity_available = quantity_available - ?, updated_at = ? " +
+            "WHERE product_id = ? AND quantity_available >= ?";
+    private static final String INCREMENT_SQL =
+            "UPDATE products SET quantity_available = quantity_available + ?, updated_at = ? WHERE product_id = ?";
+    private static final String SET_SQL =
+            "UPDATE products SET quantity_available = ?, updated_at = ? WHERE product_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public boolean decrement(String productId, int quantity) {
+        return decrement(productId, quantity, quantity);
+    }
+
+    // Takes quantity units only while at least requiredStock units remain
+    public boolean decrement(String productId, int quantity, int requiredStock) {
+        return jdbcTemplate.update(DECREMENT_SQL, quantity, now(), productId, requiredStock) == 1;
+    }
+
+    // Applies all decrements as one JDBC batch, in productId order so that overlapping batches
+    // take row locks in the same order. Returns the productIds whose guard failed; the caller
+    // is expected to fail its transaction so the successful ones roll back with it.
+    public List<String> decrementAll(Map<String, Integer> quantities, Map<String, Integer> requiredStock) {
+        if (quantities.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> productIds = new ArrayList<>(new TreeSet<>(quantities.keySet()));
+        Timestamp now = now();
+        List<Object[]> args = new ArrayList<>(productIds.size());
+        for (String productId : productIds) {
+            int quantity = quantities.get(productId);
+            args.add(new Object[]{quantity, now, productId, requiredStock.getOrDefault(productId, quantity)});
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, args);
+        List<String> failed = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                failed.add(productIds.get(i));
+            }
+        }
+        return failed;
+    }
+
+    // Quantities may be negative, as for flash-sale write-backs
+    public void incrementAll(Map<String, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        Timestamp now = now();
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        for (String productId : new TreeSet<>(quantities.keySet())) {
+            args.add(new Object[]{quantities.get(productId), now, productId});
+        }
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, args);
+    }
+
+    // Absolute stock level, as set by an administrator
+    public void setStock(String productId, int quantity) {
+        jdbcTemplate.update(SET_SQL, quantity, now(), productId);
+    }
+
+    private Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.ecart.service;
+
+import com.example.ecart.repository.InvoiceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Streams the invoices of a date range as one ZIP. Invoices already in the file store are copied
+// straight from disk; missing ones are rendered through InvoicePdfService, sharing its render pool
+// and any render of the same invoice already under way, and written as they finish.
+// Invoices are read a page at a time and at most maxInFlight renders are outstanding, so the heap
+// holds one page of ids plus the PDFs being rendered, whatever the size of the range.
+@Service
+public class InvoiceExportService {
+    private static final Logger log = LoggerFactory.getLogger(InvoiceExportService.class);
+    private static final int PAGE_SIZE = 500;
+
+    @Value("${invoice.export.max-in-flight:16}")
+    private int maxInFlight;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoicePdfService invoicePdfService;
+
+    @Autowired
+    private InvoiceFileStore invoiceFileStore;
+
+    // from and to are inclusive dates of the invoice timestamp
+    public void exportZip(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.setLevel(Deflater.BEST_SPEED); // PDF content streams are compressed already
+        BlockingQueue<Rendered> completed = new LinkedBlockingQueue<>();
+        List<String> failed = new ArrayList<>();
+        int outstanding = 0;
+
+        LocalDateTime afterTimestamp = start.minusNanos(1);
+        UUID afterId = new UUID(0L, 0L);
+        while (true) {
+            List<InvoiceRepository.ExportRow> rows = invoiceRepository.findExportRows(start, end,
+                    afterTimestamp, afterId, PageRequest.of(0, PAGE_SIZE));
+            for (InvoiceRepository.ExportRow row : rows) {
+                Path file = invoiceFileStore.find(row.getPdfSha256());
+                if (file != null) {
+                    writeEntry(zip, row.getOrderId(), file);
+                } else {
+                    while (outstanding >= maxInFlight) {
+                        outstanding--;
+                        write(zip, take(completed), failed);
+                    }
+                    outstanding++;
+                    UUID invoiceId = row.getId();
+                    String orderId = row.getOrderId();
+                    try {
+                        invoicePdfService.render(invoiceId).whenComplete((stored, error) -> {
+                            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                            completed.add(new Rendered(orderId, stored, cause));
+                        });
+                    } catch (RuntimeException e) {
+                        completed.add(new Rendered(orderId, null, e)); // render queue full
+                    }
+                }
+
+                // Entries are written as soon as their render finishes, not in id order
+                Rendered done;
+                while ((done = completed.poll()) != null) {
+                    outstanding--;
+                    write(zip, done, failed);
+                }
+            }
+            if (rows.size() < PAGE_SIZE) {
+                break;
+            }
+            InvoiceRepository.ExportRow last = rows.get(rows.size() - 1);
+            afterTimestamp = last.getTimestamp();
+            afterId = last.getId();
+        }
+
+        while (outstanding > 0) {
+            outstanding--;
+            write(zip, take(completed), failed);
+        }
+
+        if (!failed.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("FAILED.txt"));
+            zip.write(String.join("\n", failed).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    private void write(ZipOutputStream zip, Rendered rendered, List<String> failed) throws IOException {
+        if (rendered.error != null) {
+            log.warn("Invoice export failed for order {}: {}", rendered.orderId, rendered.error.getMessage());
+            failed.add(rendered.orderId + ": " + rendered.error.getMessage());
+            return;
+        }
+        writeEntry(zip, rendered.orderId, rendered.file);
+    }
+
+    private void writeEntry(ZipOutputStream zip, String orderId, Path file) throws IOException {
+        zip.putNextEntry(new ZipEntry("invoice-" + orderId + ".pdf"));
+        Files.copy(file, zip);
+        zip.closeEntry();
+    }
+
+    private Rendered take(BlockingQueue<Rendered> completed) throws IOException {
+        try {
+            return completed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while exporting invoices");
+        }
+    }
+
+    private static final class Rendered {
+        private final String orderId;
+        private final Path file;
+        private final Throwable error;
+
+        private Rendered(String orderId, Path file, Throwable error) {
+            this.orderId = orderId;
+            this.file = file;
+            this.error = error;
+        }
+    }
+}
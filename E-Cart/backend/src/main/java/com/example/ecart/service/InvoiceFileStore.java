@@ -0,0 +1,88 @@
+package com.example.ecart.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// Content-addressed store for rendered invoice PDFs: each file is named by the SHA-256 of its
+// bytes under a two-character fan-out directory. Files are written once and never modified,
+// so a stored hash always identifies exactly the bytes that were rendered.
+@Component
+public class InvoiceFileStore {
+    @Value("${invoice.store.dir:./data/invoices}")
+    private String storeDir;
+
+    // Streams the content into a temporary file while hashing it, then moves it to its hash's
+    // name unless an identical file exists already. Returns the hash.
+    public String put(ContentWriter writer) {
+        Path dir = Paths.get(storeDir);
+        Path tmp = null;
+        try {
+            Files.createDirectories(dir);
+            tmp = Files.createTempFile(dir, "put-", ".tmp");
+            MessageDigest digest = sha256();
+            try (OutputStream out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)), digest)) {
+                writer.writeTo(out);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path file = pathOf(hash);
+            if (!Files.exists(file)) {
+                Files.createDirectories(file.getParent());
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return hash;
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to store invoice PDF", e);
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // Left for the next cleanup of the store directory
+                }
+            }
+        }
+    }
+
+    // The file for hash, or null when it is not in the store
+    public Path find(String hash) {
+        if (hash == null) {
+            return null;
+        }
+        Path file = pathOf(hash);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    // The hash a stored file is named by, usable as a strong ETag
+    public String hashOf(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(0, name.length() - ".pdf".length());
+    }
+
+    private Path pathOf(String hash) {
+        return Paths.get(storeDir, hash.substring(0, 2), hash + ".pdf");
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.ecart.service;
+
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.Invoice;
+import com.example.ecart.domain.entity.Order;
+import com.example.ecart.domain.entity.OrderItem;
+import com.lowagie.text.*;
+import com.lowagie.text.pdf.*;
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+// Lays out the invoice PDF. Fonts and the skeletons of the tables are built once; a render
+// creates its own cells, including the seller block (a cell built from Paragraphs is laid out
+// in place, so it cannot be shared between concurrent renders), and copies the skeletons,
+// whose header cells hold plain Phrases. The document is written straight to the caller's stream.
+@Component
+public class InvoicePdfRenderer {
+    private static final DateTimeFormatter GENERATED_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] UNITS = {
+            "", "One", "Two", "Three", "Four", "Five", "Six",
+            "Seven", "Eight", "Nine", "Ten", "Eleven", "Twelve",
+            "Thirteen", "Fourteen", "Fifteen", "Sixteen", "Seventeen",
+            "Eighteen", "Nineteen"
+    };
+
+    private static final String[] TENS = {
+            "", "", "Twenty", "Thirty", "Forty", "Fifty",
+            "Sixty", "Seventy", "Eighty", "Ninety"
+    };
+
+    private final Font businessFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 26, new Color(255, 165, 0));
+    private final Font titleFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18);
+    private final Font boldFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
+    private final Font normalFont = FontFactory.getFont(FontFactory.HELVETICA, 12);
+    private final Font footerFont = FontFactory.getFont(FontFactory.HELVETICA, 10, new Color(120, 120, 120));
+    private final Color wordsBackground = new Color(245, 245, 245);
+    private final Color totalBackground = new Color(230, 230, 230);
+
+    private final PdfPTable itemsTemplate;
+    private final PdfPTable footerLine;
+
+    public InvoicePdfRenderer() {
+        itemsTemplate = new PdfPTable(5);
+        itemsTemplate.setWidthPercentage(100);
+        try {
+            itemsTemplate.setWidths(new float[]{2, 4, 2, 2, 2});
+        } catch (DocumentException e) {
+            throw new IllegalStateException(e);
+        }
+        for (String header : new String[]{"Product ID", "Product Name", "Qty", "Unit Price", "Total"}) {
+            PdfPCell cell = new PdfPCell(new Phrase(header, boldFont));
+            cell.setBackgroundColor(Color.LIGHT_GRAY);
+            cell.setPadding(6f);
+            cell.setBorderWidth(1);
+            itemsTemplate.addCell(cell);
+        }
+        itemsTemplate.setHeaderRows(1); // repeated on every page of a long invoice
+
+        footerLine = new PdfPTable(1);
+        footerLine.setWidthPercentage(100);
+        PdfPCell lineCell = new PdfPCell();
+        lineCell.setBorderWidthTop(1);
+        lineCell.setBorderWidthBottom(0);
+        lineCell.setBorderWidthLeft(0);
+        lineCell.setBorderWidthRight(0);
+        lineCell.setFixedHeight(5);
+        footerLine.addCell(lineCell);
+        footerLine.setSpacingBefore(15f);
+    }
+
+    // Indian numbering (Lakh, Crore), built in one StringBuilder
+    public static String convertNumberToWords(long n) {
+        StringBuilder words = new StringBuilder(64);
+        appendWords(words, n);
+        return words.toString();
+    }
+
+    public void render(Invoice invoice, List<OrderItem> items, OutputStream out) {
+        Order order = invoice.getOrder();
+        Customer customer = order.getCustomer();
+        Document document = new Document(PageSize.A4);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false); // the caller owns the stream
+            // The same invoice always renders to the same bytes, so the content-addressed store
+            // keeps one file however often it is rendered: the dates and the file ID that OpenPDF
+            // would take from the clock come from the invoice instead
+            PdfDate issued = new PdfDate(GregorianCalendar.from(invoice.getTimestamp().atZone(ZoneId.systemDefault())));
+            writer.getInfo().put(PdfName.CREATIONDATE, issued);
+            writer.getInfo().put(PdfName.MODDATE, issued);
+            String fileId = invoice.getId().toString().replace("-", "");
+            writer.getInfo().put(PdfName.FILEID, new PdfLiteral("[<" + fileId + "><" + fileId + ">]"));
+            document.open();
+
+            document.add(centered(new Paragraph("E-CART", businessFont)));
+            document.add(centered(new Paragraph("INVOICE", titleFont)));
+
+            // sold by & bill to
+            PdfPTable headerTable = new PdfPTable(2);
+            headerTable.setWidthPercentage(100);
+            headerTable.setSpacingAfter(20f);
+            PdfPCell billCell = new PdfPCell();
+            billCell.setPadding(10f);
+            billCell.addElement(new Paragraph("Bill To:", boldFont));
+            billCell.addElement(new Paragraph("Name: " + customer.getName(), normalFont));
+            billCell.addElement(new Paragraph("Phone: " + customer.getPhoneNumber(), normalFont));
+            billCell.addElement(new Paragraph("Address: " + customer.getAddress1(), normalFont));
+            billCell.addElement(new Paragraph("Zip Code: " + customer.getZipCode(), normalFont));
+            headerTable.addCell(sellerCell());
+            headerTable.addCell(billCell);
+            document.add(headerTable);
+
+            document.add(new Paragraph("Invoice ID: " + invoice.getId(), normalFont));
+            document.add(new Paragraph("Order ID: " + order.getOrderId(), normalFont));
+            document.add(new Paragraph("Transaction ID: " + invoice.getTransactionId(), normalFont));
+            document.add(new Paragraph("Date: " + invoice.getTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), normalFont));
+            document.add(new Paragraph(" "));
+
+            PdfPTable table = new PdfPTable(itemsTemplate);
+            BigDecimal grossTotal = BigDecimal.ZERO;
+            for (OrderItem item : items) {
+                BigDecimal itemTotal = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+                grossTotal = grossTotal.add(itemTotal);
+                table.addCell(new Phrase(item.getProduct().getProductId(), normalFont));
+                table.addCell(new Phrase(item.getProductName(), normalFont));
+                table.addCell(new Phrase(String.valueOf(item.getQuantity()), normalFont));
+                table.addCell(new Phrase("Rs. " + item.getUnitPrice(), normalFont));
+                table.addCell(new Phrase("Rs. " + itemTotal, normalFont));
+            }
+            document.add(table);
+
+            PdfPCell wordsCell = new PdfPCell(new Phrase(
+                    "Amount in Words: " + convertNumberToWords(grossTotal.longValue()) + " Rupees Only", boldFont));
+            wordsCell.setPadding(10f);
+            wordsCell.setBorderWidth(1);
+            wordsCell.setBackgroundColor(wordsBackground);
+            PdfPTable wordsTable = new PdfPTable(1);
+            wordsTable.setWidthPercentage(100);
+            wordsTable.setSpacingBefore(15f);
+            wordsTable.addCell(wordsCell);
+            document.add(wordsTable);
+
+            PdfPCell totalCell = new PdfPCell(new Phrase("Total Amount: Rs. " + grossTotal, boldFont));
+            totalCell.setPadding(10f);
+            totalCell.setBackgroundColor(totalBackground);
+            totalCell.setBorderWidth(1);
+            PdfPTable totalTable = new PdfPTable(1);
+            totalTable.setWidthPercentage(40);
+            totalTable.setHorizontalAlignment(Element.ALIGN_RIGHT);
+            totalTable.setSpacingBefore(10f);
+            totalTable.addCell(totalCell);
+            document.add(totalTable);
+
+            document.add(new PdfPTable(footerLine)); // layout sets the width on the table it is given
+            document.add(footer("Invoice Generated On: " + invoice.getTimestamp().format(GENERATED_FORMAT), 5f));
+            document.add(footer("This is a computer generated invoice.", 2f));
+            document.close();
+        } catch (DocumentException e) {
+            throw new RuntimeException("Error generating invoice PDF", e);
+        }
+    }
+
+    private PdfPCell sellerCell() {
+        PdfPCell cell = new PdfPCell();
+        cell.setPadding(10f);
+        cell.addElement(new Paragraph("Sold By:", boldFont));
+        cell.addElement(new Paragraph("Ecart Private Limited", normalFont));
+        cell.addElement(new Paragraph("123 Ecart Street Mumbai", normalFont));
+        cell.addElement(new Paragraph("India 400111", normalFont));
+        cell.addElement(new Paragraph("9876543210", normalFont));
+        return cell;
+    }
+
+    private Paragraph centered(Paragraph paragraph) {
+        paragraph.setAlignment(Element.ALIGN_CENTER);
+        paragraph.setSpacingAfter(15f);
+        return paragraph;
+    }
+
+    private Paragraph footer(String text, float spacingBefore) {
+        Paragraph paragraph = new Paragraph(text, footerFont);
+        paragraph.setAlignment(Element.ALIGN_RIGHT);
+        paragraph.setSpacingBefore(spacingBefore);
+        return paragraph;
+    }
+
+    private static void appendWords(StringBuilder words, long n) {
+        if (n >= 10000000) {
+            appendWords(words, n / 10000000);
+            words.append(" Crore");
+            n %= 10000000;
+        }
+        appendGroup(words, n / 100000, " Lakh");
+        appendGroup(words, n / 1000 % 100, " Thousand");
+        appendGroup(words, n / 100 % 10, " Hundred");
+        appendGroup(words, n % 100, "");
+    }
+
+    // n is below one hundred
+    private static void appendGroup(StringBuilder words, long n, String scale) {
+        if (n == 0) {
+            return;
+        }
+        if (words.length() > 0) {
+            words.append(' ');
+        }
+        if (n < 20) {
+            words.append(UNITS[(int) n]);
+        } else {
+            words.append(TENS[(int) n / 10]);
+            if (n % 10 != 0) {
+                words.append(' ').append(UNITS[(int) n % 10]);
+            }
+        }
+        words.append(scale);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.ecart.service;
+
+import com.example.ecart.domain.entity.Invoice;
+import com.example.ecart.domain.entity.OutboxEvent;
+import com.example.ecart.repository.InvoiceRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+// Renders each invoice PDF once, after the payment's ORDER_PAID event, on its own bounded pool so
+// rendering never runs on request or checkout threads. The bytes go to the InvoiceFileStore and
+// downloads read the stored file. An invoice whose file is missing (render failed, store wiped)
+// is rendered again on its next download. Every render goes through render(), so concurrent
+// requests for one invoice (event, downloads, exports) share a single render.
+@Service
+public class InvoicePdfService implements OutboxSubscriber {
+    @Value("${invoice.render.workers:2}")
+    private int workers;
+
+    @Value("${invoice.render.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${invoice.render.wait-seconds:30}")
+    private long waitSeconds;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoiceFileStore invoiceFileStore;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    private final Map<UUID, CompletableFuture<Path>> rendering = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "invoice-render");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public String getName() {
+        return "invoice-pdf";
+    }
+
+    @Override
+    public boolean supports(OutboxEvent.EventType eventType) {
+        return eventType == OutboxEvent.EventType.ORDER_PAID;
+    }
+
+    // Only queues the render; a full queue throws so the outbox retries the event later
+    @Override
+    @SuppressWarnings("unchecked")
+    public void handle(OutboxEvent event) {
+        Map<String, Object> payload = outboxService.readPayload(event, Map.class);
+        Object invoiceId = payload.get("invoiceId");
+        if (invoiceId != null) {
+            render(UUID.fromString(invoiceId.toString()));
+        }
+    }
+
+    // The stored PDF of the order's invoice, rendered first if it is not in the store
+    public Path getPdf(String orderId) {
+        Invoice invoice = invoiceRepository.findByOrderOrderId(orderId)
+                .orElseThrow(() -> new RuntimeException("Invoice not found"));
+        Path file = invoiceFileStore.find(invoice.getPdfSha256());
+        if (file != null) {
+            return file;
+        }
+
+        try {
+            return render(invoice.getId()).get(waitSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Invoice is still being generated");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error generating invoice PDF", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while generating invoice PDF");
+        }
+    }
+
+    // The stored PDF of the invoice, rendered on the render pool unless it is stored already.
+    // Joins a render of the same invoice that is queued or running.
+    public CompletableFuture<Path> render(UUID invoiceId) {
+        CompletableFuture<Path> future = new CompletableFuture<>();
+        CompletableFuture<Path> existing = rendering.putIfAbsent(invoiceId, future);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(renderNow(invoiceId));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    rendering.remove(invoiceId, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rendering.remove(invoiceId, future);
+            throw new RuntimeException("Invoice rendering queue is full");
+        }
+        return future;
+    }
+
+    // Renders and stores the invoice on the calling thread unless it is stored already
+    private Path renderNow(UUID invoiceId) {
+        // A redelivered event for an invoice that is already stored has nothing to do
+        Invoice invoice = invoiceRepository.findById(invoiceId)
+                .orElseThrow(() -> new RuntimeException("Invoice not found"));
+        Path file = invoiceFileStore.find(invoice.getPdfSha256());
+        if (file != null) {
+            return file;
+        }
+
+        String hash = invoiceFileStore.put(out -> invoiceService.writeInvoicePdf(invoiceId, out));
+        invoiceService.recordPdf(invoiceId, hash);
+        return invoiceFileStore.find(hash);
+    }
+}
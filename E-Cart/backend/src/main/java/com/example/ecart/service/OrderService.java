@@ -3,26 +3,55 @@ package com.example.ecart.service;
 import com.example.ecart.domain.entity.*;
 import com.example.ecart.dto.request.FeedbackRequest;
 import com.example.ecart.dto.request.UpdateOrderRequest;
-import com.example.ecart.dto.response.OrderItemResponse;
+import com.example.ecart.dto.response.BulkCancelResponse;
+import com.example.ecart.dto.response.BulkOrderUpdateReport;
 import com.example.ecart.dto.response.OrderResponse;
+import com.example.ecart.dto.response.OrderSliceResponse;
 import com.example.ecart.repository.*;
 import com.example.ecart.util.OrderIdGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
+    private static final int BULK_CHUNK = 1000;
+    private static final int MAX_SLICE_SIZE = 100;
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -44,22 +73,54 @@ public class OrderService {
     @Autowired
     private FeedbackRepository feedbackRepository;
 
+    @Autowired
+    private InventoryReservationService inventoryReservationService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private OrderViewService orderViewService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ProductRatingService productRatingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Transactional
     public OrderResponse createOrderFromCart(String customerId, String addressSnapshot) {
         Customer customer = customerRepository.findByCustomerId(customerId)
                 .orElseThrow(() -> new RuntimeException("Customer not found"));
 
-        List<Map<String, Object>> cartItems = cartService.getCart(customerId);
-        if (cartItems.isEmpty()) {
+        Map<String, Integer> cartQuantities = cartService.getCartQuantities(customerId);
+        if (cartQuantities.isEmpty()) {
+            throw new RuntimeException("Cart is empty");
+        }
+
+        // One read for every product in the cart; lines whose product is gone are skipped
+        List<Product> products = productRepository.findByProductIdIn(cartQuantities.keySet());
+        if (products.isEmpty()) {
             throw new RuntimeException("Cart is empty");
         }
 
         // Calculate total amount first
         BigDecimal totalAmount = BigDecimal.ZERO;
-        for (Map<String, Object> item : cartItems) {
-            BigDecimal price = (BigDecimal) item.get("price");
-            Integer quantity = (Integer) item.get("quantity");
-            totalAmount = totalAmount.add(price.multiply(BigDecimal.valueOf(quantity)));
+        for (Product product : products) {
+            Integer quantity = cartQuantities.get(product.getProductId());
+            totalAmount = totalAmount.add(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
         }
 
         // Create and save Order first (must be saved before creating OrderItems)
@@ -75,42 +136,70 @@ public class OrderService {
         // Save order first to make it persistent
         order = orderRepository.save(order);
 
-        // Now create OrderItems with the saved Order
-        for (Map<String, Object> item : cartItems) {
-            String productId = (String) item.get("productId");
-            Integer quantity = (Integer) item.get("quantity");
-            BigDecimal price = (BigDecimal) item.get("price");
-
-            Product product = productRepository.findByProductId(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found: " + productId));
-
-            if (product.getQuantityAvailable() < quantity) {
-                throw new RuntimeException("Insufficient quantity for product: " + product.getName());
-            }
+        // Holds cover this customer's units; lapsed holds must leave other customers' holds intact
+        Map<String, Integer> quantities = new HashMap<>();
+        Map<String, Integer> requiredStock = new HashMap<>();
+        Map<String, String> productNames = new HashMap<>();
+        for (Product product : products) {
+            String productId = product.getProductId();
+            Integer quantity = cartQuantities.get(productId);
+            quantities.put(productId, quantity);
+            requiredStock.put(productId, inventoryReservationService.requiredStock(customerId, productId, quantity));
+            productNames.put(productId, product.getName());
+        }
+        Map<String, Integer> stockDeltas = new HashMap<>();
+        quantities.forEach((productId, quantity) -> stockDeltas.put(productId, -quantity));
 
-            // Update product quantity
-            product.setQuantityAvailable(product.getQuantityAvailable() - quantity);
-            productRepository.save(product);
+        // Flash-sale lines come out of the in-memory counters, the rest from the products table
+        List<String> insufficient = flashSaleService.takeFlashStock(quantities);
+        if (insufficient.isEmpty()) {
+            insufficient = inventoryService.decrementAll(quantities, requiredStock);
+        }
+        if (!insufficient.isEmpty()) {
+            throw new RuntimeException("Insufficient quantity for product: " + productNames.get(insufficient.get(0)));
+        }
 
-            OrderItem orderItem = OrderItem.builder()
+        List<OrderItem> orderItems = new ArrayList<>(products.size());
+        for (Product product : products) {
+            Integer quantity = cartQuantities.get(product.getProductId());
+            orderItems.add(OrderItem.builder()
                     .order(order) // Now order is persistent
                     .product(product)
                     .productName(product.getName())
                     .category(product.getCategory())
-                    .unitPrice(price)
+                    .unitPrice(product.getPrice())
                     .quantity(quantity)
                     .description(product.getDescription())
-                    .build();
-
-            orderItemRepository.save(orderItem);
+                    .build());
         }
 
-        return mapToResponse(order);
+        // Flushed as one JDBC batch (hibernate.jdbc.batch_size)
+        orderItemRepository.saveAll(orderItems);
+
+        // The stock is taken now, so drop the holds once the order is committed
+        List<String> heldProductIds = new ArrayList<>(cartQuantities.keySet());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                inventoryReservationService.release(customerId, heldProductIds);
+            }
+        });
+
+        Map<String, Object> created = new HashMap<>();
+        created.put("orderId", order.getOrderId());
+        created.put("customerId", customerId);
+        created.put("totalAmount", totalAmount);
+        outboxService.publish(OutboxEvent.EventType.ORDER_CREATED, order.getOrderId(), created);
+        outboxService.publishStockChanged(order.getOrderId(), stockDeltas);
+
+        return orderViewService.refresh(order);
     }
 
     @Transactional
     public OrderResponse cancelOrder(String orderId, String customerId, String cancellationReason) {
-        Order order = orderRepository.findByOrderId(orderId)
+        // Row-locked like a bulk cancel chunk, so a concurrent cancel waits and then sees CANCELLED
+        // instead of restoring the stock a second time
+        Order order = orderRepository.findByOrderIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         if (!order.getCustomer().getCustomerId().equals(customerId)) {
@@ -130,20 +219,16 @@ public class OrderService {
         order.setCancellationReason(cancellationReason);
 
         // Restore product quantities
-        List<OrderItem> items = orderItemRepository.findByOrder(order);
-        for (OrderItem item : items) {
-            Product product = item.getProduct();
-            product.setQuantityAvailable(product.getQuantityAvailable() + item.getQuantity());
-            productRepository.save(product);
-        }
+        restoreStock(order);
 
         order = orderRepository.save(order);
-        return mapToResponse(order);
+        publishCancelled(order);
+        return orderViewService.refresh(order);
     }
 
     @Transactional
     public OrderResponse updateOrder(String orderId, UpdateOrderRequest request) {
-        Order order = orderRepository.findByOrderId(orderId)
+        Order order = orderRepository.findByOrderIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         if (order.getStatus() == Order.OrderStatus.CANCELLED || order.getStatus() == Order.OrderStatus.DELIVERED) {
@@ -165,12 +250,12 @@ public class OrderService {
         }
 
         order = orderRepository.save(order);
-        return mapToResponse(order);
+        return orderViewService.refresh(order);
     }
 
     @Transactional
     public OrderResponse adminCancelOrder(String orderId) {
-        Order order = orderRepository.findByOrderId(orderId)
+        Order order = orderRepository.findByOrderIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         if (order.getStatus() != Order.OrderStatus.CONFIRMED) {
@@ -181,15 +266,99 @@ public class OrderService {
         order.setCancelledDate(LocalDateTime.now());
 
         // Restore product quantities
-        List<OrderItem> items = orderItemRepository.findByOrder(order);
-        for (OrderItem item : items) {
-            Product product = item.getProduct();
-            product.setQuantityAvailable(product.getQuantityAvailable() + item.getQuantity());
-            productRepository.save(product);
-        }
+        restoreStock(order);
 
         order = orderRepository.save(order);
-        return mapToResponse(order);
+        publishCancelled(order);
+        return orderViewService.refresh(order);
+    }
+
+    // Cancels many confirmed orders, one transaction per chunk of BULK_CHUNK: the statuses change in
+    // one UPDATE and stock comes back as one increment per product, summed over the chunk's items.
+    // A chunk that fails rolls back on its own and its orders are reported as failed.
+    public BulkCancelResponse bulkCancelOrders(List<String> orderIds, String reason) {
+        long started = System.currentTimeMillis();
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        BulkCancelChunk total = new BulkCancelChunk();
+        Map<String, String> failed = new LinkedHashMap<>();
+        for (int from = 0; from < distinct.size(); from += BULK_CHUNK) {
+            List<String> chunk = distinct.subList(from, Math.min(from + BULK_CHUNK, distinct.size()));
+            try {
+                BulkCancelChunk result = transactionTemplate.execute(status -> cancelChunk(chunk, reason));
+                total.cancelled += result.cancelled;
+                total.notFound.addAll(result.notFound);
+                total.notCancellable.putAll(result.notCancellable);
+                result.restored.forEach((productId, quantity) -> total.restored.merge(productId, quantity, Integer::sum));
+            } catch (RuntimeException e) {
+                chunk.forEach(orderId -> failed.put(orderId, e.getMessage()));
+            }
+        }
+
+        return BulkCancelResponse.builder()
+                .requested(distinct.size())
+                .cancelled(total.cancelled)
+                .notFound(total.notFound)
+                .notCancellable(total.notCancellable)
+                .failed(failed)
+                .restoredStock(total.restored)
+                .elapsedMillis(System.currentTimeMillis() - started)
+                .build();
+    }
+
+    // Applies orderId,status,arrivingDate rows read line by line from a CSV or NDJSON stream.
+    // Rows are validated and written BULK_CHUNK at a time, one transaction and one JDBC batch per
+    // chunk, and each chunk's outcome is handed to progress as soon as it is committed.
+    public void bulkUpdateOrders(BufferedReader reader, boolean ndjson, Consumer<BulkOrderUpdateReport> progress) throws IOException {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<BulkUpdateRow> rows = new ArrayList<>(BULK_CHUNK);
+        List<String> errors = new ArrayList<>();
+        int lineNumber = 0;
+        int firstLine = 1;
+        int chunk = 0;
+        int totalRows = 0;
+        int totalUpdated = 0;
+        int totalRejected = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (!ndjson && lineNumber == 1 && line.trim().toLowerCase().startsWith("orderid"))) {
+                continue;
+            }
+            try {
+                rows.add(ndjson ? parseNdjsonRow(lineNumber, line) : parseCsvRow(lineNumber, line));
+            } catch (RuntimeException e) {
+                errors.add("Line " + lineNumber + ": " + e.getMessage());
+            }
+            if (rows.size() + errors.size() == BULK_CHUNK) {
+                BulkOrderUpdateReport report = applyUpdateChunk(transactionTemplate, ++chunk, firstLine, lineNumber, rows, errors);
+                totalRows += report.getRows();
+                totalUpdated += report.getUpdated();
+                totalRejected += report.getRejected();
+                progress.accept(report);
+                rows = new ArrayList<>(BULK_CHUNK);
+                errors = new ArrayList<>();
+                firstLine = lineNumber + 1;
+            }
+        }
+        if (!rows.isEmpty() || !errors.isEmpty()) {
+            BulkOrderUpdateReport report = applyUpdateChunk(transactionTemplate, ++chunk, firstLine, lineNumber, rows, errors);
+            totalRows += report.getRows();
+            totalUpdated += report.getUpdated();
+            totalRejected += report.getRejected();
+            progress.accept(report);
+        }
+
+        progress.accept(BulkOrderUpdateReport.builder()
+                .firstLine(1)
+                .lastLine(lineNumber)
+                .rows(totalRows)
+                .updated(totalUpdated)
+                .rejected(totalRejected)
+                .done(true)
+                .build());
     }
 
     public Page<OrderResponse> getCustomerOrders(String customerId, Specification<Order> spec, Pageable pageable) {
@@ -200,17 +369,29 @@ public class OrderService {
         Specification<Order> checkInvoice = (root, query, cb) -> cb.isNotNull(root.get("invoiceId"));
         Specification<Order> combinedSpec = spec.and(customerSpec).and(checkInvoice);
 
-        return orderRepository.findAll(combinedSpec, pageable).map(this::mapToResponse);
+        return mapToResponses(orderRepository.findAll(combinedSpec, pageable));
     }
 
     public Page<OrderResponse> getAllOrders(Specification<Order> spec, Pageable pageable) {
-        return orderRepository.findAll(spec, pageable).map(this::mapToResponse);
+        return mapToResponses(orderRepository.findAll(spec, pageable));
+    }
+
+    // Keyset variants: "after" is the nextCursor of the previous slice, absent for the first one
+    public OrderSliceResponse getCustomerOrders(String customerId, Specification<Order> spec, String after, int size, boolean withTotal) {
+        Customer customer = customerRepository.findByCustomerId(customerId)
+                .orElseThrow(() -> new RuntimeException("Customer not found"));
+
+        Specification<Order> customerSpec = (root, query, cb) -> cb.equal(root.get("customer"), customer);
+        Specification<Order> checkInvoice = (root, query, cb) -> cb.isNotNull(root.get("invoiceId"));
+        return findSlice(spec.and(customerSpec).and(checkInvoice), after, size, withTotal);
+    }
+
+    public OrderSliceResponse getAllOrders(Specification<Order> spec, String after, int size, boolean withTotal) {
+        return findSlice(spec, after, size, withTotal);
     }
 
     public OrderResponse getOrderByOrderId(String orderId) {
-        Order order = orderRepository.findByOrderId(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-        return mapToResponse(order);
+        return orderViewService.findByOrderId(orderId);
     }
 
     @Transactional
@@ -227,31 +408,21 @@ public class OrderService {
         }
 
         // Verify product is in the order
-        List<OrderItem> orderItems = orderItemRepository.findByOrder(order);
-        boolean productInOrder = orderItems.stream()
-                .anyMatch(item -> item.getProduct().getProductId().equals(request.getProductId()));
-        
-        if (!productInOrder) {
+        if (!orderItemRepository.existsByOrderAndProductProductId(order, request.getProductId())) {
             throw new RuntimeException("Product not found in this order");
         }
 
         Product product = productRepository.findByProductId(request.getProductId())
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
-        // Check if feedback already exists for this order-product combination
-        List<Feedback> existingFeedback = feedbackRepository.findAll().stream()
-                .filter(f -> f.getOrder().getId().equals(order.getId()) 
-                        && f.getProduct().getProductId().equals(request.getProductId())
-                        && f.getCustomer().getCustomerId().equals(customerId))
-                .collect(Collectors.toList());
+        Customer customer = customerRepository.findByCustomerId(customerId)
+                .orElseThrow(() -> new RuntimeException("Customer not found"));
 
-        if (!existingFeedback.isEmpty()) {
+        // Check if feedback already exists for this order-product combination
+        if (feedbackRepository.existsByOrderAndProductAndCustomer(order, product, customer)) {
             throw new RuntimeException("Feedback already exists for this product in this order");
         }
 
-        Customer customer = customerRepository.findByCustomerId(customerId)
-                .orElseThrow(() -> new RuntimeException("Customer not found"));
-
         Feedback feedback = Feedback.builder()
                 .order(order)
                 .customer(customer)
@@ -260,40 +431,267 @@ public class OrderService {
                 .description(request.getDescription())
                 .build();
 
-        feedbackRepository.save(feedback);
+        try {
+            feedbackRepository.saveAndFlush(feedback);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent submission got past the check first
+            throw new RuntimeException("Feedback already exists for this product in this order");
+        }
+        productRatingService.record(product.getProductId(), request.getRating());
+    }
+
+    private void restoreStock(Order order) {
+        Map<String, Integer> quantities = new HashMap<>();
+        for (OrderItemRepository.ProductQuantity line : orderItemRepository.sumQuantitiesByOrder(order)) {
+            quantities.put(line.getProductId(), line.getQuantity().intValue());
+        }
+        outboxService.publishStockChanged(order.getOrderId(), new HashMap<>(quantities));
+        flashSaleService.restoreFlashStock(quantities);
+        inventoryService.incrementAll(quantities);
+    }
+
+    private BulkCancelChunk cancelChunk(List<String> orderIds, String reason) {
+        BulkCancelChunk result = new BulkCancelChunk();
+        Set<String> found = new HashSet<>();
+        List<UUID> ids = new ArrayList<>();
+        // Locks the rows so no single cancellation or update slips in between the check and the UPDATE
+        jdbcTemplate.query("SELECT id, order_id, status FROM orders WHERE order_id IN (" + placeholders(orderIds.size()) + ") FOR UPDATE",
+                rs -> {
+                    String orderId = rs.getString("order_id");
+                    String status = rs.getString("status");
+                    found.add(orderId);
+                    if (Order.OrderStatus.CONFIRMED.name().equals(status)) {
+                        ids.add(rs.getObject("id", UUID.class));
+                    } else {
+                        result.notCancellable.put(orderId, status);
+                    }
+                }, orderIds.toArray());
+        for (String orderId : orderIds) {
+            if (!found.contains(orderId)) {
+                result.notFound.add(orderId);
+            }
+        }
+        if (ids.isEmpty()) {
+            return result;
+        }
+
+        List<Object> args = new ArrayList<>(ids.size() + 3);
+        args.add(Order.OrderStatus.CANCELLED.name());
+        args.add(Timestamp.valueOf(LocalDateTime.now()));
+        args.add(reason);
+        args.addAll(ids);
+        result.cancelled = jdbcTemplate.update("UPDATE orders SET status = ?, cancelled_date = ?, cancellation_reason = ? " +
+                "WHERE id IN (" + placeholders(ids.size()) + ")", args.toArray());
+
+        Map<String, Integer> quantities = new HashMap<>();
+        for (OrderItemRepository.ProductQuantity line : orderItemRepository.sumQuantitiesByOrderIdIn(ids)) {
+            quantities.put(line.getProductId(), line.getQuantity().intValue());
+        }
+        result.restored.putAll(quantities);
+        outboxService.publishStockChanged("bulk-cancel", new HashMap<>(quantities));
+        flashSaleService.restoreFlashStock(quantities);
+        inventoryService.incrementAll(quantities);
+
+        List<Order> orders = orderRepository.findWithCustomerByIdIn(ids);
+        orderViewService.refreshAll(orders);
+        orders.forEach(this::publishCancelled);
+        return result;
     }
 
-    private OrderResponse mapToResponse(Order order) {
-        List<OrderItem> items = orderItemRepository.findByOrder(order);
-        List<OrderItemResponse> itemResponses = items.stream()
-                .map(item -> OrderItemResponse.builder()
-                        .id(item.getId())
-                        .productId(item.getProduct().getProductId())
-                        .productName(item.getProductName())
-                        .category(item.getCategory())
-                        .unitPrice(item.getUnitPrice())
-                        .quantity(item.getQuantity())
-                        .description(item.getDescription())
-                        .build())
-                .collect(Collectors.toList());
-
-        return OrderResponse.builder()
-                .id(order.getId())
-                .orderId(order.getOrderId())
-                .customerId(order.getCustomer().getCustomerId())
-                .customerName(order.getCustomer().getName())
-                .totalAmount(order.getTotalAmount())
-                .status(order.getStatus())
-                .createdAt(order.getCreatedAt())
-                .arrivingDate(order.getArrivingDate())
-                .cancelledDate(order.getCancelledDate())
-                .cancellationReason(order.getCancellationReason())
-                .addressSnapshot(order.getAddressSnapshot())
-                .paymentMode(order.getPaymentMode())
-                .transactionId(order.getTransactionId())
-                .invoiceId(order.getInvoiceId())
-                .items(itemResponses)
+    private BulkOrderUpdateReport applyUpdateChunk(TransactionTemplate transactionTemplate, int chunk, int firstLine, int lastLine,
+                                                   List<BulkUpdateRow> rows, List<String> parseErrors) {
+        List<String> errors = new ArrayList<>(parseErrors);
+        int updated = 0;
+        if (!rows.isEmpty()) {
+            List<String> rowErrors = new ArrayList<>();
+            try {
+                updated = transactionTemplate.execute(status -> updateChunk(rows, rowErrors));
+                errors.addAll(rowErrors);
+            } catch (RuntimeException e) {
+                // The whole chunk rolled back
+                for (BulkUpdateRow row : rows) {
+                    errors.add("Line " + row.line + " (" + row.orderId + "): " + e.getMessage());
+                }
+            }
+        }
+        return BulkOrderUpdateReport.builder()
+                .chunk(chunk)
+                .firstLine(firstLine)
+                .lastLine(lastLine)
+                .rows(rows.size() + parseErrors.size())
+                .updated(updated)
+                .rejected(errors.size())
+                .errors(errors)
+                .done(false)
                 .build();
     }
-}
 
+    private int updateChunk(List<BulkUpdateRow> rows, List<String> errors) {
+        Map<String, UUID> ids = new HashMap<>();
+        Map<String, Order.OrderStatus> current = new HashMap<>();
+        List<String> orderIds = rows.stream().map(row -> row.orderId).distinct().collect(Collectors.toList());
+        jdbcTemplate.query("SELECT id, order_id, status FROM orders WHERE order_id IN (" + placeholders(orderIds.size()) + ") FOR UPDATE",
+                rs -> {
+                    ids.put(rs.getString("order_id"), rs.getObject("id", UUID.class));
+                    current.put(rs.getString("order_id"), Order.OrderStatus.valueOf(rs.getString("status")));
+                }, orderIds.toArray());
+
+        Set<String> seen = new HashSet<>();
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (BulkUpdateRow row : rows) {
+            Order.OrderStatus from = current.get(row.orderId);
+            String error = null;
+            if (from == null) {
+                error = "Order not found";
+            } else if (!seen.add(row.orderId)) {
+                error = "Duplicate row for order";
+            } else if (from == Order.OrderStatus.CANCELLED || from == Order.OrderStatus.DELIVERED) {
+                error = "Cannot update order in current status";
+            } else if (row.status != null && !isForwardTransition(from, row.status)) {
+                error = "Cannot move order from " + from + " to " + row.status;
+            }
+            if (error != null) {
+                errors.add("Line " + row.line + " (" + row.orderId + "): " + error);
+                continue;
+            }
+            Order.OrderStatus to = row.status != null ? row.status : from;
+            args.add(new Object[]{to.name(), row.arrivingDate, ids.get(row.orderId), from.name()});
+        }
+        if (args.isEmpty()) {
+            return 0;
+        }
+
+        // The guard on the old status matches the rows just locked; it only protects against misuse
+        int[] counts = jdbcTemplate.batchUpdate("UPDATE orders SET status = ?, arriving_date = COALESCE(?, arriving_date) " +
+                "WHERE id = ? AND status = ?", args);
+        List<UUID> updatedIds = new ArrayList<>(args.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                updatedIds.add((UUID) args.get(i)[2]);
+            }
+        }
+        if (!updatedIds.isEmpty()) {
+            orderViewService.refreshAll(orderRepository.findWithCustomerByIdIn(updatedIds));
+        }
+        return updatedIds.size();
+    }
+
+    // Bulk updates only move orders forward; cancellation goes through bulkCancelOrders so stock is restored
+    private boolean isForwardTransition(Order.OrderStatus from, Order.OrderStatus to) {
+        if (from == to) {
+            return true;
+        }
+        if (from == Order.OrderStatus.CONFIRMED) {
+            return to == Order.OrderStatus.IN_TRANSIT || to == Order.OrderStatus.DELIVERED;
+        }
+        return from == Order.OrderStatus.IN_TRANSIT && to == Order.OrderStatus.DELIVERED;
+    }
+
+    private BulkUpdateRow parseCsvRow(int lineNumber, String line) {
+        String[] values = line.split(",", -1);
+        if (values.length < 2) {
+            throw new RuntimeException("Expected orderId,status,arrivingDate");
+        }
+        return toRow(lineNumber, values[0].trim(), values[1].trim(), values.length > 2 ? values[2].trim() : "");
+    }
+
+    private BulkUpdateRow parseNdjsonRow(int lineNumber, String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new RuntimeException("Invalid JSON");
+        }
+        return toRow(lineNumber, node.path("orderId").asText(""), node.path("status").asText(""), node.path("arrivingDate").asText(""));
+    }
+
+    private BulkUpdateRow toRow(int lineNumber, String orderId, String status, String arrivingDate) {
+        if (orderId.isEmpty()) {
+            throw new RuntimeException("Order ID is required");
+        }
+        BulkUpdateRow row = new BulkUpdateRow();
+        row.line = lineNumber;
+        row.orderId = orderId;
+        try {
+            row.status = status.isEmpty() ? null : Order.OrderStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid status: " + status);
+        }
+        try {
+            row.arrivingDate = arrivingDate.isEmpty() ? null : LocalDate.parse(arrivingDate);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid arriving date: " + arrivingDate);
+        }
+        if (row.status == null && row.arrivingDate == null) {
+            throw new RuntimeException("Nothing to update");
+        }
+        return row;
+    }
+
+    private String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private void publishCancelled(Order order) {
+        Map<String, Object> cancelled = new HashMap<>();
+        cancelled.put("orderId", order.getOrderId());
+        cancelled.put("customerId", order.getCustomer().getCustomerId());
+        cancelled.put("cancellationReason", order.getCancellationReason());
+        outboxService.publish(OutboxEvent.EventType.ORDER_CANCELLED, order.getOrderId(), cancelled);
+    }
+
+    private OrderSliceResponse findSlice(Specification<Order> spec, String after, int size, boolean withTotal) {
+        LocalDateTime afterCreatedAt = null;
+        UUID afterId = null;
+        if (after != null && !after.isEmpty()) {
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8).split(",");
+                afterCreatedAt = LocalDateTime.parse(position[0]);
+                afterId = UUID.fromString(position[1]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+
+        int limit = Math.min(Math.max(size, 1), MAX_SLICE_SIZE);
+        // One row beyond the slice tells whether there is a next one
+        List<Order> orders = orderRepository.findNextSlice(spec, afterCreatedAt, afterId, limit + 1);
+        boolean hasNext = orders.size() > limit;
+        if (hasNext) {
+            orders = orders.subList(0, limit);
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            Order last = orders.get(orders.size() - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (last.getCreatedAt() + "," + last.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        return OrderSliceResponse.builder()
+                .content(orderViewService.findResponses(orders))
+                .size(limit)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .totalElements(withTotal ? orderRepository.count(spec) : null)
+                .build();
+    }
+
+    private Page<OrderResponse> mapToResponses(Page<Order> orders) {
+        return new PageImpl<>(orderViewService.findResponses(orders.getContent()), orders.getPageable(), orders.getTotalElements());
+    }
+
+    private static final class BulkCancelChunk {
+        private int cancelled;
+        private final List<String> notFound = new ArrayList<>();
+        private final Map<String, String> notCancellable = new LinkedHashMap<>();
+        private final Map<String, Integer> restored = new TreeMap<>();
+    }
+
+    private static final class BulkUpdateRow {
+        private int line;
+        private String orderId;
+        private Order.OrderStatus status;
+        private LocalDate arrivingDate;
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.ecart.service;
+
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.Order;
+import com.example.ecart.domain.entity.OrderItem;
+import com.example.ecart.domain.entity.OrderView;
+import com.example.ecart.dto.response.OrderItemResponse;
+import com.example.ecart.dto.response.OrderResponse;
+import com.example.ecart.repository.OrderItemRepository;
+import com.example.ecart.repository.OrderRepository;
+import com.example.ecart.repository.OrderViewRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+// Maintains the order_views projection: order screens read one JSON document per order
+// instead of re-joining orders, order_items, customers and products.
+@Service
+public class OrderViewService {
+    private static final int REBUILD_CHUNK = 500;
+    private static final String INSERT_SQL =
+            "INSERT INTO order_views (id, order_id, document, updated_at) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Re-assembles the order's document from the source tables. Runs inside the transaction
+    // that changed the order, so the projection commits or rolls back with it.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OrderResponse refresh(Order order) {
+        OrderResponse response = assemble(List.of(order)).get(0);
+        orderViewRepository.save(toView(response));
+        return response;
+    }
+
+    // Same as refresh for many orders, with one items query for all of them
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<OrderResponse> refreshAll(List<Order> orders) {
+        List<OrderResponse> responses = assemble(orders);
+        // Loads the existing views into the session so saving them does not select one by one
+        orderViewRepository.findAllById(orders.stream().map(Order::getId).collect(Collectors.toList()));
+        orderViewRepository.saveAll(responses.stream().map(this::toView).collect(Collectors.toList()));
+        return responses;
+    }
+
+    // The documents embed the customer's name, so a rename re-assembles all of their orders
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refreshCustomer(Customer customer) {
+        List<Order> orders = orderRepository.findByCustomer(customer);
+        for (int from = 0; from < orders.size(); from += REBUILD_CHUNK) {
+            refreshAll(orders.subList(from, Math.min(from + REBUILD_CHUNK, orders.size())));
+        }
+    }
+
+    public OrderResponse findByOrderId(String orderId) {
+        Optional<OrderView> view = orderViewRepository.findByOrderId(orderId);
+        if (view.isPresent()) {
+            return read(view.get());
+        }
+        Order order = orderRepository.findByOrderId(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        return backfill(List.of(order)).get(0);
+    }
+
+    // Documents for a page of orders, in the page's order, from one IN query
+    public List<OrderResponse> findResponses(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<UUID, OrderResponse> responses = new HashMap<>();
+        for (OrderView view : orderViewRepository.findAllById(orders.stream().map(Order::getId).collect(Collectors.toList()))) {
+            responses.put(view.getId(), read(view));
+        }
+
+        List<Order> missing = orders.stream()
+                .filter(order -> !responses.containsKey(order.getId()))
+                .collect(Collectors.toList());
+        for (OrderResponse response : backfill(missing)) {
+            responses.put(response.getId(), response);
+        }
+        return orders.stream().map(order -> responses.get(order.getId())).collect(Collectors.toList());
+    }
+
+    // Regenerates every document from the source tables, one transaction per chunk
+    public long rebuildAll() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long rebuilt = 0;
+        int pageNumber = 0;
+        while (true) {
+            int currentPage = pageNumber;
+            Integer count = transactionTemplate.execute(status -> {
+                Page<Order> page = orderRepository.findAll(PageRequest.of(currentPage, REBUILD_CHUNK, Sort.by("id")));
+                orderViewRepository.saveAll(assemble(page.getContent()).stream().map(this::toView).collect(Collectors.toList()));
+                return page.getNumberOfElements();
+            });
+            rebuilt += count;
+            if (count < REBUILD_CHUNK) {
+                return rebuilt;
+            }
+            pageNumber++;
+        }
+    }
+
+    // Orders written before the projection existed get their document on first read. The page's
+    // orders are reloaded with their customers in one query rather than one lazy load each.
+    private List<OrderResponse> backfill(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<OrderResponse> responses = assemble(orderRepository.findWithCustomerByIdIn(
+                orders.stream().map(Order::getId).collect(Collectors.toList())));
+        // Plain inserts in one batch: saveAll would first select every view it is told to save
+        List<Object[]> rows = new ArrayList<>(responses.size());
+        for (OrderResponse response : responses) {
+            OrderView view = toView(response);
+            rows.add(new Object[]{view.getId(), view.getOrderId(), view.getDocument(), Timestamp.valueOf(view.getUpdatedAt())});
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        } catch (DuplicateKeyException e) {
+            // A concurrent read or refresh wrote some of these first; theirs are kept
+            for (Object[] row : rows) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, row);
+                } catch (DuplicateKeyException ignored) {
+                }
+            }
+        }
+        return responses;
+    }
+
+    // Loads the items of all orders (with their products) in one query and assembles in memory
+    private List<OrderResponse> assemble(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<UUID> orderIds = orders.stream().map(Order::getId).collect(Collectors.toList());
+        Map<UUID, List<OrderItemResponse>> itemsByOrder = new HashMap<>();
+        for (OrderItem item : orderItemRepository.findWithProductByOrderIdIn(orderIds)) {
+            itemsByOrder.computeIfAbsent(item.getOrder().getId(), k -> new ArrayList<>())
+                    .add(OrderItemResponse.builder()
+                            .id(item.getId())
+                            .productId(item.getProduct().getProductId())
+                            .productName(item.getProductName())
+                            .category(item.getCategory())
+                            .unitPrice(item.getUnitPrice())
+                            .quantity(item.getQuantity())
+                            .description(item.getDescription())
+                            .build());
+        }
+
+        return orders.stream()
+                .map(order -> toResponse(order, itemsByOrder.getOrDefault(order.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    private OrderResponse toResponse(Order order, List<OrderItemResponse> itemResponses) {
+        return OrderResponse.builder()
+                .id(order.getId())
+                .orderId(order.getOrderId())
+                .customerId(order.getCustomer().getCustomerId())
+                .customerName(order.getCustomer().getName())
+                .totalAmount(order.getTotalAmount())
+                .status(order.getStatus())
+                .createdAt(order.getCreatedAt())
+                .arrivingDate(order.getArrivingDate())
+                .cancelledDate(order.getCancelledDate())
+                .cancellationReason(order.getCancellationReason())
+                .addressSnapshot(order.getAddressSnapshot())
+                .paymentMode(order.getPaymentMode())
+                .transactionId(order.getTransactionId())
+                .invoiceId(order.getInvoiceId())
+                .items(itemResponses)
+                .build();
+    }
+
+    private OrderView toView(OrderResponse response) {
+        try {
+            return OrderView.builder()
+                    .id(response.getId())
+                    .orderId(response.getOrderId())
+                    .document(objectMapper.writeValueAsString(response))
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unable to serialize order view", e);
+        }
+    }
+
+    private OrderResponse read(OrderView view) {
+        try {
+            return objectMapper.readValue(view.getDocument(), OrderResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unable to read order view", e);
+        }
+    }
+}
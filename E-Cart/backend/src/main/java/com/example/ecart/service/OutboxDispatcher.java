@@ -0,0 +1,154 @@
+package com.example.ecart.service;
+
+import com.example.ecart.domain.entity.OutboxEvent;
+import com.example.ecart.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Polls committed outbox events and hands each to a bounded worker pool, which runs the
+// subscribers that have not handled it yet. An event stays PENDING until every subscriber
+// succeeded; failures are retried with exponential backoff, and after max-attempts the event
+// is PARKED for inspection instead of being retried forever. Events already queued or running
+// are never claimed twice, and the subscribers recorded on the event are skipped on redelivery.
+@Component
+public class OutboxDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    @Value("${outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.workers:4}")
+    private int workers;
+
+    @Value("${outbox.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${outbox.max-backoff-ms:300000}")
+    private long maxBackoffMillis;
+
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.retention-hours:24}")
+    private long retentionHours;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired(required = false)
+    private List<OutboxSubscriber> subscribers = new ArrayList<>();
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "outbox-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-ms:200}")
+    public void poll() {
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        // Over-fetch by the in-flight count so events still running do not crowd out new ones
+        int limit = Math.min(batchSize, capacity) + inFlight.size();
+        List<OutboxEvent> events = outboxEventRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                OutboxEvent.EventStatus.PENDING, LocalDateTime.now(), PageRequest.of(0, limit));
+        for (OutboxEvent event : events) {
+            if (!inFlight.add(event.getId())) {
+                continue;
+            }
+            try {
+                executor.execute(() -> deliver(event.getId()));
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(event.getId());
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.purge-ms:3600000}")
+    public void purge() {
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.deleteDispatchedBefore(OutboxEvent.EventStatus.DISPATCHED, before));
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void deliver(UUID eventId) {
+        try {
+            // Re-read: a poll that raced a finishing worker may hand over an event that is done now
+            OutboxEvent event = outboxEventRepository.findById(eventId).orElse(null);
+            if (event == null || event.getStatus() == OutboxEvent.EventStatus.DISPATCHED) {
+                return;
+            }
+            Set<String> delivered = new LinkedHashSet<>();
+            if (event.getDeliveredTo() != null && !event.getDeliveredTo().isEmpty()) {
+                delivered.addAll(Arrays.asList(event.getDeliveredTo().split(",")));
+            }
+            boolean failed = false;
+            for (OutboxSubscriber subscriber : subscribers) {
+                if (!subscriber.supports(event.getEventType()) || delivered.contains(subscriber.getName())) {
+                    continue;
+                }
+                try {
+                    subscriber.handle(event);
+                    delivered.add(subscriber.getName());
+                } catch (RuntimeException e) {
+                    failed = true;
+                    log.warn("Outbox subscriber {} failed on event {} (attempt {}): {}", subscriber.getName(),
+                            event.getId(), event.getAttempts() + 1, e.getMessage());
+                }
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            event.setDeliveredTo(String.join(",", delivered));
+            event.setAttempts(event.getAttempts() + 1);
+            if (failed && event.getAttempts() >= maxAttempts) {
+                event.setStatus(OutboxEvent.EventStatus.PARKED);
+                log.error("Outbox event {} ({}) parked after {} attempts; still undelivered to some subscribers",
+                        event.getId(), event.getEventType(), event.getAttempts());
+            } else if (failed) {
+                long backoff = Math.min(maxBackoffMillis, 1000L << Math.min(event.getAttempts(), 20));
+                event.setNextAttemptAt(now.plusNanos(backoff * 1_000_000L));
+            } else {
+                event.setStatus(OutboxEvent.EventStatus.DISPATCHED);
+                event.setDispatchedAt(now);
+            }
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.save(event));
+        } finally {
+            inFlight.remove(eventId);
+        }
+    }
+}
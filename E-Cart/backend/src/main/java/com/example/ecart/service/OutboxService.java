@@ -0,0 +1,54 @@
+package com.example.ecart.service;
+
+import com.example.ecart.domain.entity.OutboxEvent;
+import com.example.ecart.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Service
+public class OutboxService {
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Must join the transaction making the change, so the event exists exactly when the change does
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(OutboxEvent.EventType eventType, String aggregateId, Map<String, ?> payload) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .eventType(eventType)
+                    .aggregateId(aggregateId)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .createdAt(now)
+                    .nextAttemptAt(now)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unable to serialize event", e);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishStockChanged(String aggregateId, Map<String, Integer> deltas) {
+        if (!deltas.isEmpty()) {
+            publish(OutboxEvent.EventType.STOCK_CHANGED, aggregateId, Map.of("deltas", deltas));
+        }
+    }
+
+    public <T> T readPayload(OutboxEvent event, Class<T> type) {
+        try {
+            return objectMapper.readValue(event.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unable to read event payload", e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.ecart.service;
+
+import com.example.ecart.domain.entity.OutboxEvent;
+
+// In-process consumer of outbox events. Delivery is at-least-once: a subscriber that threw, or
+// whose success was not recorded before a crash, sees the event again, so handle() must be idempotent.
+public interface OutboxSubscriber {
+    // Stable name, recorded on the event once this subscriber has handled it
+    String getName();
+
+    boolean supports(OutboxEvent.EventType eventType);
+
+    void handle(OutboxEvent event);
+}
@@ -0,0 +1,69 @@
+package com.example.ecart.service;
+
+import com.example.ecart.domain.entity.Order;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Provider that authorizes payments. charge() may block for as long as the provider takes;
+// callers go through PaymentGatewayClient, which adds the timeout, bulkhead and circuit breaker.
+public interface PaymentGateway {
+    ChargeResult charge(ChargeRequest request);
+
+    final class ChargeRequest {
+        private final UUID attemptId;
+        private final String orderId;
+        private final BigDecimal amount;
+        private final Order.PaymentMode mode;
+
+        public ChargeRequest(UUID attemptId, String orderId, BigDecimal amount, Order.PaymentMode mode) {
+            this.attemptId = attemptId;
+            this.orderId = orderId;
+            this.amount = amount;
+            this.mode = mode;
+        }
+
+        public UUID getAttemptId() {
+            return attemptId;
+        }
+
+        public String getOrderId() {
+            return orderId;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public Order.PaymentMode getMode() {
+            return mode;
+        }
+    }
+
+    // A decline is a normal answer from the provider; provider failures are thrown instead
+    final class ChargeResult {
+        private final boolean approved;
+        private final String declineReason;
+
+        private ChargeResult(boolean approved, String declineReason) {
+            this.approved = approved;
+            this.declineReason = declineReason;
+        }
+
+        public static ChargeResult approved() {
+            return new ChargeResult(true, null);
+        }
+
+        public static ChargeResult declined(String reason) {
+            return new ChargeResult(false, reason);
+        }
+
+        public boolean isApproved() {
+            return approved;
+        }
+
+        public String getDeclineReason() {
+            return declineReason;
+        }
+    }
+}
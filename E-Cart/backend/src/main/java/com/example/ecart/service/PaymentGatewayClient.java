@@ -0,0 +1,134 @@
+package com.example.ecart.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Calls the PaymentGateway off the request thread. At most max-concurrent calls run at once
+// (bulkhead), each is cut off after timeout-ms, and after failure-threshold consecutive failures
+// the circuit opens: calls fail fast for open-ms, then a single trial call decides whether it closes.
+@Component
+public class PaymentGatewayClient {
+    @Value("${payment.gateway.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    @Value("${payment.gateway.max-concurrent:64}")
+    private int maxConcurrent;
+
+    @Value("${payment.gateway.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${payment.gateway.breaker.open-ms:30000}")
+    private long openMillis;
+
+    @Value("${payment.gateway.virtual-threads:true}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private PaymentGateway paymentGateway;
+
+    private ExecutorService executor;
+    private Semaphore bulkhead;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile long openUntil; // 0 while closed
+
+    @PostConstruct
+    public void init() {
+        bulkhead = new Semaphore(maxConcurrent);
+        executor = virtualThreads ? newVirtualThreadExecutor() : null;
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(maxConcurrent, runnable -> {
+                Thread thread = new Thread(runnable, "payment-gateway");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdown();
+    }
+
+    public CompletableFuture<PaymentGateway.ChargeResult> charge(PaymentGateway.ChargeRequest request) {
+        boolean trial = false;
+        long open = openUntil;
+        if (open != 0) {
+            if (System.currentTimeMillis() < open || !trialInFlight.compareAndSet(false, true)) {
+                return CompletableFuture.failedFuture(new RuntimeException("Payment gateway unavailable, please try again shortly"));
+            }
+            trial = true;
+        }
+        if (!bulkhead.tryAcquire()) {
+            if (trial) {
+                trialInFlight.set(false);
+            }
+            return CompletableFuture.failedFuture(new RuntimeException("Payment gateway busy, please try again"));
+        }
+
+        boolean isTrial = trial;
+        // The permit is held until the call itself returns, even when the caller has timed out
+        CompletableFuture<PaymentGateway.ChargeResult> call = CompletableFuture.supplyAsync(() -> {
+            try {
+                return paymentGateway.charge(request);
+            } finally {
+                bulkhead.release();
+            }
+        }, executor);
+        return call.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .handle((result, error) -> {
+                    if (error == null) {
+                        onSuccess();
+                        return result;
+                    }
+                    onFailure(isTrial);
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause instanceof TimeoutException) {
+                        throw new RuntimeException("Payment gateway timed out");
+                    }
+                    throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+                });
+    }
+
+    // "CLOSED", "OPEN" or "HALF_OPEN"
+    public String getCircuitState() {
+        long open = openUntil;
+        if (open == 0) {
+            return "CLOSED";
+        }
+        return System.currentTimeMillis() < open ? "OPEN" : "HALF_OPEN";
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        openUntil = 0;
+        trialInFlight.set(false);
+    }
+
+    private void onFailure(boolean trial) {
+        if (trial) {
+            openUntil = System.currentTimeMillis() + openMillis;
+            trialInFlight.set(false);
+        } else if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openUntil = System.currentTimeMillis() + openMillis;
+        }
+    }
+
+    // The build targets Java 17; on a Java 21+ runtime each call gets its own virtual thread,
+    // so waiting on the provider costs no platform thread
+    private ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -4,13 +4,22 @@ import com.example.ecart.domain.entity.*;
 import com.example.ecart.dto.request.PaymentRequest;
 import com.example.ecart.repository.*;
 import com.example.ecart.util.TransactionIdGenerator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 public class PaymentService {
@@ -32,57 +41,158 @@ public class PaymentService {
     @Autowired
     private CartService cartService;
 
-    @Transactional
-    public Map<String, String> processPayment(String orderId, PaymentRequest request, String customerId) {
-        Order order = orderRepository.findByOrderId(orderId)
+    @Autowired
+    private OrderViewService orderViewService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private PaymentGatewayClient paymentGatewayClient;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${payment.pending-stale-ms:60000}")
+    private long pendingStaleMillis;
+
+    @Value("${payment.completion-threads:8}")
+    private int completionThreads;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Applies gateway answers. A timed-out charge completes on the JDK's single timeout thread,
+    // which must not run a database transaction, so every answer is handed over to this pool.
+    private ExecutorService completionExecutor;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        completionExecutor = Executors.newFixedThreadPool(completionThreads, runnable -> {
+            Thread thread = new Thread(runnable, "payment-completion");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        completionExecutor.shutdown();
+    }
+
+    // The order is checked and a PENDING attempt recorded in one short transaction, the gateway is
+    // called with no transaction or connection held, and its answer is applied in a second one
+    public CompletableFuture<Map<String, String>> processPayment(String orderId, PaymentRequest request, String customerId) {
+        PaymentGateway.ChargeRequest charge = transactionTemplate.execute(status -> beginPayment(orderId, request));
+        return paymentGatewayClient.charge(charge).handleAsync((result, error) -> {
+            boolean approved = error == null && result.isApproved();
+            Map<String, String> response = transactionTemplate.execute(status -> approved
+                    ? confirmPayment(charge.getAttemptId(), request, customerId)
+                    : failPayment(charge.getAttemptId()));
+            if (response == null && approved) {
+                throw new RuntimeException("Order is not in confirmed status");
+            }
+            if (response == null && error == null) {
+                String reason = result.getDeclineReason();
+                throw new RuntimeException(reason != null ? "Payment declined: " + reason : "Payment failed. Please try again.");
+            }
+            if (response == null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                throw new RuntimeException(cause.getMessage());
+            }
+            return response;
+        }, completionExecutor);
+    }
+
+    private PaymentGateway.ChargeRequest beginPayment(String orderId, PaymentRequest request) {
+        // The row lock keeps two concurrent payments of one order from both starting
+        Order order = orderRepository.findByOrderIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         if (order.getStatus() != Order.OrderStatus.CONFIRMED) {
             throw new RuntimeException("Order is not in confirmed status");
         }
+        if (order.getTransactionId() != null) {
+            throw new RuntimeException("Order is already paid");
+        }
 
         // Validate payment details
         validatePaymentRequest(request);
 
-        // Simulate payment gateway (for dev - always succeeds)
-        boolean paymentSuccess = simulatePaymentGateway(request);
+        // An attempt left PENDING by a crash no longer blocks the order once it is stale
+        LocalDateTime staleBefore = LocalDateTime.now().minusNanos(pendingStaleMillis * 1_000_000L);
+        for (PaymentAttempt pending : paymentAttemptRepository.findByOrderAndStatus(order, PaymentAttempt.PaymentStatus.PENDING)) {
+            if (pending.getCreatedAt().isAfter(staleBefore)) {
+                throw new RuntimeException("Payment already in progress");
+            }
+            pending.setStatus(PaymentAttempt.PaymentStatus.FAILED);
+        }
 
-        PaymentAttempt paymentAttempt = PaymentAttempt.builder()
+        PaymentAttempt paymentAttempt = paymentAttemptRepository.save(PaymentAttempt.builder()
                 .order(order)
                 .mode(PaymentAttempt.PaymentMode.valueOf(request.getPaymentMode().name()))
                 .payload(buildPaymentPayload(request))
-                .status(paymentSuccess ? PaymentAttempt.PaymentStatus.SUCCESS : PaymentAttempt.PaymentStatus.FAILED)
+                .status(PaymentAttempt.PaymentStatus.PENDING)
                 .createdAt(LocalDateTime.now())
-                .build();
-
-        if (paymentSuccess) {
-            String transactionId = transactionIdGenerator.generateTransactionId();
-            paymentAttempt.setTransactionId(transactionId);
-            order.setTransactionId(transactionId);
-            order.setPaymentMode(request.getPaymentMode());
-            order.setStatus(Order.OrderStatus.CONFIRMED);
-            if (request.getAddressSnapshot().length() > 0) {
-                order.setAddressSnapshot(request.getAddressSnapshot());
-            }
+                .build());
+        return new PaymentGateway.ChargeRequest(paymentAttempt.getId(), order.getOrderId(), order.getTotalAmount(),
+                request.getPaymentMode());
+    }
 
-            // Generate invoice
-            Invoice invoice = invoiceService.generateInvoice(order, transactionId);
-            order.setInvoiceId(invoice.getId().toString());
+    private Map<String, String> confirmPayment(UUID attemptId, PaymentRequest request, String customerId) {
+        PaymentAttempt paymentAttempt = paymentAttemptRepository.findById(attemptId)
+                .orElseThrow(() -> new RuntimeException("Payment attempt not found"));
+        Order order = orderRepository.findByOrderIdForUpdate(paymentAttempt.getOrder().getOrderId())
+                .orElseThrow(() -> new RuntimeException("Order not found"));
 
-            orderRepository.save(order);
-            paymentAttemptRepository.save(paymentAttempt);
+        // Cancelled while the gateway was deciding; a real provider's authorization would be voided here
+        if (order.getStatus() != Order.OrderStatus.CONFIRMED) {
+            return failPayment(attemptId);
+        }
 
-            Map<String, String> response = new HashMap<>();
-            response.put("transactionId", transactionId);
-            response.put("orderId", order.getOrderId());
-            response.put("status", "SUCCESS");
-            response.put("message", "Payment processed successfully");
-            cartService.clearCart(customerId);
-            return response;
-        } else {
-            paymentAttemptRepository.save(paymentAttempt);
-            throw new RuntimeException("Payment failed. Please try again.");
+        String transactionId = transactionIdGenerator.generateTransactionId();
+        paymentAttempt.setTransactionId(transactionId);
+        paymentAttempt.setStatus(PaymentAttempt.PaymentStatus.SUCCESS);
+        order.setTransactionId(transactionId);
+        order.setPaymentMode(request.getPaymentMode());
+        order.setStatus(Order.OrderStatus.CONFIRMED);
+        if (request.getAddressSnapshot() != null && request.getAddressSnapshot().length() > 0) {
+            order.setAddressSnapshot(request.getAddressSnapshot());
         }
+
+        // Generate invoice
+        Invoice invoice = invoiceService.generateInvoice(order, transactionId);
+        order.setInvoiceId(invoice.getId().toString());
+
+        orderRepository.save(order);
+        paymentAttemptRepository.save(paymentAttempt);
+        orderViewService.refresh(order);
+
+        Map<String, Object> paid = new HashMap<>();
+        paid.put("orderId", order.getOrderId());
+        paid.put("customerId", order.getCustomer().getCustomerId());
+        paid.put("transactionId", transactionId);
+        paid.put("invoiceId", order.getInvoiceId());
+        paid.put("paymentMode", order.getPaymentMode());
+        outboxService.publish(OutboxEvent.EventType.ORDER_PAID, order.getOrderId(), paid);
+
+        Map<String, String> response = new HashMap<>();
+        response.put("transactionId", transactionId);
+        response.put("orderId", order.getOrderId());
+        response.put("status", "SUCCESS");
+        response.put("message", "Payment processed successfully");
+        cartService.clearCart(customerId);
+        return response;
+    }
+
+    // Declines, gateway errors and timeouts all end the attempt; a charge that timed out is not
+    // reconciled with the provider here
+    private Map<String, String> failPayment(UUID attemptId) {
+        paymentAttemptRepository.findById(attemptId).ifPresent(paymentAttempt -> {
+            paymentAttempt.setStatus(PaymentAttempt.PaymentStatus.FAILED);
+            paymentAttemptRepository.save(paymentAttempt);
+        });
+        return null;
     }
 
     private void validatePaymentRequest(PaymentRequest request) {
@@ -112,13 +222,6 @@ public class PaymentService {
         }
     }
 
-    private boolean simulatePaymentGateway(PaymentRequest request) {
-        // For development: Always return true - payment always succeeds
-        // In production, integrate with actual payment gateway here
-        System.out.println("Payment simulation: Payment successful for order");
-        return true;
-    }
-
     private String buildPaymentPayload(PaymentRequest request) {
         Map<String, Object> payload = new HashMap<>();
         payload.put("mode", request.getPaymentMode());
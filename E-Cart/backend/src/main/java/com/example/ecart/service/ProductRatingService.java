@@ -0,0 +1,124 @@
+package com.example.ecart.service;
+
+import com.example.ecart.domain.entity.ProductRating;
+import com.example.ecart.repository.ProductRatingRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Maintains product_ratings: each new feedback adds to its product's count, sum and
+// histogram with one UPDATE, so concurrent submissions never read-modify-write the totals
+@Service
+public class ProductRatingService {
+    private static final String[] STAR_COLUMNS = {"stars1", "stars2", "stars3", "stars4", "stars5"};
+    private static final String INSERT_SQL =
+            "INSERT INTO product_ratings (product_id, rating_count, rating_sum, stars1, stars2, stars3, stars4, stars5, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private ProductRatingRepository productRatingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Feedback written before the aggregate existed is counted once, on the first start
+    @PostConstruct
+    public void backfill() {
+        if (productRatingRepository.count() == 0) {
+            rebuildAll();
+        }
+    }
+
+    // Runs in the transaction that inserts the feedback, so the totals commit with it
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String productId, int rating) {
+        if (rating < 1 || rating > 5) {
+            throw new RuntimeException("Rating must be between 1 and 5");
+        }
+        if (increment(productId, rating) == 0) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, productId, 0, 0, 0, 0, 0, 0, 0, now());
+            } catch (DuplicateKeyException e) {
+                // Created by a concurrent first rating
+            }
+            increment(productId, rating);
+        }
+    }
+
+    public Optional<ProductRating> findByProductId(String productId) {
+        return productRatingRepository.findById(productId);
+    }
+
+    // productId -> totals, for a page of products in one query
+    public Map<String, ProductRating> findByProductIds(Collection<String> productIds) {
+        Map<String, ProductRating> ratings = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            productRatingRepository.findAllById(productIds).forEach(rating -> ratings.put(rating.getProductId(), rating));
+        }
+        return ratings;
+    }
+
+    public Double averageOf(ProductRating rating) {
+        if (rating == null || rating.getRatingCount() == 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(rating.getRatingSum())
+                .divide(BigDecimal.valueOf(rating.getRatingCount()), 2, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+
+    // Recomputes every product's totals from the feedback table with one grouped query
+    public long rebuildAll() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> {
+            Map<String, long[]> histograms = new TreeMap<>();
+            jdbcTemplate.query("SELECT p.product_id, f.rating, COUNT(*) FROM feedback f " +
+                    "JOIN products p ON p.id = f.product_id GROUP BY p.product_id, f.rating", rs -> {
+                int rating = rs.getInt(2);
+                if (rating >= 1 && rating <= 5) {
+                    histograms.computeIfAbsent(rs.getString(1), k -> new long[5])[rating - 1] += rs.getLong(3);
+                }
+            });
+
+            jdbcTemplate.update("DELETE FROM product_ratings");
+            Timestamp now = now();
+            List<Object[]> args = new ArrayList<>(histograms.size());
+            histograms.forEach((productId, stars) -> {
+                long count = 0;
+                long sum = 0;
+                for (int i = 0; i < stars.length; i++) {
+                    count += stars[i];
+                    sum += stars[i] * (i + 1);
+                }
+                args.add(new Object[]{productId, count, sum, stars[0], stars[1], stars[2], stars[3], stars[4], now});
+            });
+            jdbcTemplate.batchUpdate(INSERT_SQL, args);
+            return (long) histograms.size();
+        });
+    }
+
+    private int increment(String productId, int rating) {
+        String stars = STAR_COLUMNS[rating - 1];
+        return jdbcTemplate.update("UPDATE product_ratings SET rating_count = rating_count + 1, rating_sum = rating_sum + ?, " +
+                stars + " = " + stars + " + 1, updated_at = ? WHERE product_id = ?", rating, now(), productId);
+    }
+
+    private Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.ecart.service;
 
 import com.example.ecart.domain.entity.Product;
+import com.example.ecart.domain.entity.ProductRating;
 import com.example.ecart.dto.request.CreateProductRequest;
 import com.example.ecart.dto.request.UpdateProductRequest;
 import com.example.ecart.dto.response.ProductResponse;
@@ -9,6 +10,7 @@ import com.example.ecart.repository.ProductRepository;
 import com.example.ecart.util.ProductIdGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -18,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,6 +31,18 @@ public class ProductService {
     @Autowired
     private ProductIdGenerator productIdGenerator;
 
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ProductRatingService productRatingService;
+
     @Transactional
     public ProductResponse createProduct(CreateProductRequest request) {
         if (productRepository.existsByName(request.getName())) {
@@ -65,7 +80,16 @@ public class ProductService {
         product.setPrice(request.getPrice());
         product.setCategory(request.getCategory());
         product.setDescription(request.getDescription());
-        product.setQuantityAvailable(request.getQuantityAvailable());
+        if (!request.getQuantityAvailable().equals(product.getQuantityAvailable())) {
+            // The counters own the stock while a flash sale runs
+            if (flashSaleService.isActive(productId)) {
+                throw new RuntimeException("Product is in flash-sale mode");
+            }
+            outboxService.publishStockChanged(productId,
+                    Map.of(productId, request.getQuantityAvailable() - product.getQuantityAvailable()));
+            product.setQuantityAvailable(request.getQuantityAvailable());
+            inventoryService.setStock(productId, request.getQuantityAvailable());
+        }
         if (request.getStatus() != null) {
             product.setStatus(request.getStatus());
             // When setting status to ACTIVE, ensure softDeleted is false
@@ -93,15 +117,21 @@ public class ProductService {
     public ProductResponse getProductByProductId(String productId) {
         Product product = productRepository.findByProductId(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
-        return mapToResponse(product);
+        ProductRating rating = productRatingService.findByProductId(productId).orElse(null);
+        ProductResponse response = mapToResponse(product, rating);
+        if (rating != null) {
+            response.setRatingHistogram(List.of(rating.getStars1(), rating.getStars2(), rating.getStars3(),
+                    rating.getStars4(), rating.getStars5()));
+        }
+        return response;
     }
 
     public Page<ProductResponse> getProducts(Specification<Product> spec, Pageable pageable) {
-        return productRepository.findAll(spec, pageable).map(this::mapToResponse);
+        return mapToResponses(productRepository.findAll(spec, pageable));
     }
 
     public Page<ProductResponse> getAllProducts(Specification<Product> spec, Pageable pageable) {
-        return productRepository.findAll(spec, pageable).map(this::mapToResponse);
+        return mapToResponses(productRepository.findAll(spec, pageable));
     }
 
     public ProductHighlightsResponse getLandingHighlights(int heroLimit, int sectionLimit) {
@@ -134,15 +164,29 @@ public class ProductService {
 
     private List<ProductResponse> getActiveProducts(int limit, Sort sort) {
         Pageable pageable = PageRequest.of(0, limit, sort);
-        return productRepository
+        return mapToResponses(productRepository
                 .findByStatusAndSoftDeletedFalseAndQuantityAvailableGreaterThan(
-                        Product.ProductStatus.ACTIVE, 0, pageable)
-                .stream()
-                .map(this::mapToResponse)
+                        Product.ProductStatus.ACTIVE, 0, pageable));
+    }
+
+    private Page<ProductResponse> mapToResponses(Page<Product> products) {
+        return new PageImpl<>(mapToResponses(products.getContent()), products.getPageable(), products.getTotalElements());
+    }
+
+    // Ratings for the whole list come from one query on product_ratings
+    private List<ProductResponse> mapToResponses(List<Product> products) {
+        Map<String, ProductRating> ratings = productRatingService.findByProductIds(
+                products.stream().map(Product::getProductId).collect(Collectors.toList()));
+        return products.stream()
+                .map(product -> mapToResponse(product, ratings.get(product.getProductId())))
                 .collect(Collectors.toList());
     }
 
     private ProductResponse mapToResponse(Product product) {
+        return mapToResponse(product, productRatingService.findByProductId(product.getProductId()).orElse(null));
+    }
+
+    private ProductResponse mapToResponse(Product product, ProductRating rating) {
         return ProductResponse.builder()
                 .id(product.getId())
                 .productId(product.getProductId())
@@ -157,6 +201,8 @@ public class ProductService {
                 .createdAt(product.getCreatedAt())
                 .updatedAt(product.getUpdatedAt())
                 .deletedAt(product.getDeletedAt())
+                .averageRating(productRatingService.averageOf(rating))
+                .ratingCount(rating != null ? rating.getRatingCount() : 0L)
                 .build();
     }
 }
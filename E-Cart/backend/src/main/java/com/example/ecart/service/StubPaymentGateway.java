@@ -0,0 +1,62 @@
+package com.example.ecart.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Local stand-in for a payment provider, for development and load tests. Latency is log-normal,
+// set by its median and 99th percentile, and a share of calls can be declined or fail outright.
+@Component
+@ConditionalOnProperty(name = "payment.gateway.type", havingValue = "stub", matchIfMissing = true)
+public class StubPaymentGateway implements PaymentGateway {
+    private static final double Z_99 = 2.326; // standard normal 99th percentile
+
+    @Value("${payment.gateway.stub.latency-median-ms:0}")
+    private long latencyMedianMillis;
+
+    @Value("${payment.gateway.stub.latency-p99-ms:0}")
+    private long latencyP99Millis;
+
+    @Value("${payment.gateway.stub.decline-rate:0.0}")
+    private double declineRate;
+
+    @Value("${payment.gateway.stub.error-rate:0.0}")
+    private double errorRate;
+
+    @Override
+    public ChargeResult charge(ChargeRequest request) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        sleep(sampleLatency(random));
+        if (random.nextDouble() < errorRate) {
+            throw new RuntimeException("Payment gateway error");
+        }
+        if (random.nextDouble() < declineRate) {
+            return ChargeResult.declined("Card declined");
+        }
+        return ChargeResult.approved();
+    }
+
+    private long sampleLatency(ThreadLocalRandom random) {
+        if (latencyMedianMillis <= 0) {
+            return 0;
+        }
+        double sigma = latencyP99Millis > latencyMedianMillis
+                ? Math.log((double) latencyP99Millis / latencyMedianMillis) / Z_99
+                : 0;
+        return Math.round(latencyMedianMillis * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    private void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Payment gateway call interrupted");
+        }
+    }
+}
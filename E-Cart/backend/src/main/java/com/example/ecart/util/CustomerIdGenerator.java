@@ -2,70 +2,57 @@ package com.example.ecart.util;
 
 import com.example.ecart.repository.CustomerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.List;
 
+// CUST-yyyyMMdd-NNNN, numbered per day from a hi/lo sequence, so registrations neither lock
+// nor query customers. A day's counter starts after the highest id already issued that day
+// (one index lookup when the counter row is created), which covers ids issued before it existed.
 @Component
 public class CustomerIdGenerator {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
-    private static final Pattern CUSTOMER_ID_PATTERN = Pattern.compile("CUST-(\\d{8})-(\\d{4})");
-    
+
     @Autowired
     private CustomerRepository customerRepository;
-    
-    private int sequence = 0;
-    private String lastDate = "";
 
-    public synchronized String generateCustomerId() {
+    @Autowired
+    private IdSequenceAllocator idSequenceAllocator;
+
+    private volatile String lastDate = "";
+
+    public String generateCustomerId() {
         String currentDate = LocalDate.now().format(DATE_FORMATTER);
-        
-        if (!currentDate.equals(lastDate)) {
+        String previousDate = lastDate;
+        if (!currentDate.equals(previousDate)) {
             lastDate = currentDate;
-            sequence = findMaxSequenceForDate(currentDate);
-        }
-        
-        String customerId;
-        int maxRetries = 1000; // Prevent infinite loop
-        int retryCount = 0;
-        
-        do {
-            sequence++;
-            customerId = String.format("CUST-%s-%04d", currentDate, sequence);
-            retryCount++;
-            
-            if (retryCount > maxRetries) {
-                throw new RuntimeException("Unable to generate unique customer ID after " + maxRetries + " attempts");
+            if (!previousDate.isEmpty()) {
+                idSequenceAllocator.forget(sequenceName(previousDate));
             }
-        } while (customerRepository.existsByCustomerId(customerId));
-        
-        return customerId;
+        }
+
+        long sequence = idSequenceAllocator.next(sequenceName(currentDate), () -> firstSequenceOf(currentDate));
+        return String.format("CUST-%s-%04d", currentDate, sequence);
     }
-    
-    private int findMaxSequenceForDate(String date) {
-        // Find the maximum sequence number for the given date
-        String datePrefix = "CUST-" + date + "-";
-        
-        return customerRepository.findAll().stream()
-                .map(customer -> {
-                    String custId = customer.getCustomerId();
-                    if (custId != null && custId.startsWith(datePrefix)) {
-                        Matcher matcher = CUSTOMER_ID_PATTERN.matcher(custId);
-                        if (matcher.matches()) {
-                            try {
-                                return Integer.parseInt(matcher.group(2));
-                            } catch (NumberFormatException e) {
-                                return 0;
-                            }
-                        }
-                    }
-                    return 0;
-                })
-                .max(Integer::compareTo)
-                .orElse(0);
+
+    private String sequenceName(String date) {
+        return "customer-" + date;
     }
-}
 
+    private long firstSequenceOf(String date) {
+        String prefix = "CUST-" + date + "-";
+        List<String> highest = customerRepository.findCustomerIdsWithPrefixHighestFirst(prefix, PageRequest.of(0, 1));
+        if (highest.isEmpty()) {
+            return 1;
+        }
+        String maxCustomerId = highest.get(0);
+        try {
+            return Long.parseLong(maxCustomerId.substring(prefix.length())) + 1;
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.ecart.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Hi/lo sequences shared by all instances. Each instance reserves a block of values from the
+// id_sequences row in its own short transaction (the row lock orders concurrent reservations)
+// and hands them out from memory with a single atomic increment; only the thread that finds
+// the block used up goes back to the database. Values are unique across instances and
+// increasing within one, with gaps where a block was not used up before a restart.
+// Reservations run on a small connection pool of their own: they are made from inside callers'
+// transactions (registration, product creation), and taking a second connection from the main
+// pool there could wait forever once every main connection is held by such a caller.
+@Component
+public class IdSequenceAllocator {
+    private static final String RESERVE_SQL = "UPDATE id_sequences SET next_value = next_value + ? WHERE name = ?";
+    private static final String READ_SQL = "SELECT next_value FROM id_sequences WHERE name = ?";
+    private static final String CREATE_SQL = "INSERT INTO id_sequences (name, next_value) VALUES (?, ?)";
+
+    @Value("${id-sequence.block-size:50}")
+    private int blockSize;
+
+    @Value("${id-sequence.pool-size:2}")
+    private int poolSize;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    private final Map<String, Sequence> sequences = new ConcurrentHashMap<>();
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("id-sequence");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(0);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // Reservations commit on their own, whatever transaction the caller is in
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @PreDestroy
+    public void close() {
+        dataSource.close();
+    }
+
+    // Next value of the named sequence. initialValue is only asked for when the sequence's row
+    // does not exist yet and gives its first value.
+    public long next(String name, LongSupplier initialValue) {
+        Sequence sequence = sequences.computeIfAbsent(name, k -> new Sequence());
+        while (true) {
+            Block block = sequence.block;
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.end) {
+                    return value;
+                }
+            }
+            synchronized (sequence) {
+                // Another thread may have refilled while this one waited
+                if (sequence.block == block) {
+                    long end = reserve(name, blockSize, initialValue);
+                    sequence.block = new Block(end - blockSize, end);
+                }
+            }
+        }
+    }
+
+    // Drops the in-memory block of a sequence that will not be used again, such as an earlier day's
+    public void forget(String name) {
+        sequences.remove(name);
+    }
+
+    // Takes a single value straight from the database, for values needed once per instance
+    public long nextUnbuffered(String name, LongSupplier initialValue) {
+        return reserve(name, 1, initialValue) - 1;
+    }
+
+    // Reserves count values and returns the end of the reserved range (exclusive)
+    private long reserve(String name, int count, LongSupplier initialValue) {
+        while (true) {
+            Long end = transactionTemplate.execute(status -> jdbcTemplate.update(RESERVE_SQL, count, name) == 1
+                    ? jdbcTemplate.queryForObject(READ_SQL, Long.class, name)
+                    : null);
+            if (end != null) {
+                return end;
+            }
+            // First use of the sequence; created in its own transaction so a lost race does not
+            // poison the reservation
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.update(CREATE_SQL, name, initialValue.getAsLong()));
+            } catch (DuplicateKeyException e) {
+                // Created by another instance in the meantime
+            }
+        }
+    }
+
+    private static final class Sequence {
+        private volatile Block block;
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
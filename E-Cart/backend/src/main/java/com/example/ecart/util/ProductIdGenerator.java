@@ -2,17 +2,37 @@ package com.example.ecart.util;
 
 import com.example.ecart.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
+// Product ids are numbers padded to at least three digits, so the existing "001".."999" stay
+// valid and later ones simply grow ("1000", "1001", ...). They come from a hi/lo sequence
+// instead of counting the products table.
 @Component
 public class ProductIdGenerator {
     @Autowired
     private ProductRepository productRepository;
 
-    public synchronized String generateProductId() {
-        long count = productRepository.count();
-        int nextId = (int) (count % 1000) + 1;
-        return String.format("%03d", nextId);
+    @Autowired
+    private IdSequenceAllocator idSequenceAllocator;
+
+    public String generateProductId() {
+        return String.format("%03d", idSequenceAllocator.next("product", this::firstProductNumber));
     }
-}
 
+    // Only asked for when the sequence row is created, e.g. after the sequence table was reset
+    private long firstProductNumber() {
+        List<String> highest = productRepository.findProductIdsHighestFirst(PageRequest.of(0, 1));
+        if (highest.isEmpty()) {
+            return 1;
+        }
+        String maxProductId = highest.get(0);
+        try {
+            return Long.parseLong(maxProductId) + 1;
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Unexpected product id " + maxProductId);
+        }
+    }
+}
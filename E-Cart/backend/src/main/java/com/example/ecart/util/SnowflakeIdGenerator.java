@@ -0,0 +1,96 @@
+package com.example.ecart.util;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Snowflake-style ids in the PREFIX-yyyyMMddHHmmss-XXXXXXXX format used for order and
+// transaction ids. The timestamp is UTC to the second; the eight hex digits pack the
+// millisecond (10 bits), this instance's node id (10 bits) and a per-millisecond sequence
+// (12 bits). Ids from one node strictly increase, and two nodes never share a node id, so
+// no id is issued twice and none is checked against the database.
+@Component
+public class SnowflakeIdGenerator {
+    private static final Logger log = LoggerFactory.getLogger(SnowflakeIdGenerator.class);
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final DateTimeFormatter SECOND_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+
+    // Fixed node id per instance; -1 leases one from the id_sequences table at startup
+    @Value("${snowflake.node-id:-1}")
+    private long configuredNodeId;
+
+    @Autowired
+    private IdSequenceAllocator idSequenceAllocator;
+
+    // Last issued (millis << SEQUENCE_BITS | sequence). A sequence that runs over carries into the
+    // millisecond, and a clock that goes back is ignored, so the state only ever increases.
+    private final AtomicLong state = new AtomicLong();
+
+    private volatile SecondText secondText = new SecondText(-1, "");
+
+    private long nodeId;
+
+    @PostConstruct
+    public void init() {
+        if (configuredNodeId >= 0) {
+            if (configuredNodeId > MAX_NODE_ID) {
+                throw new IllegalStateException("snowflake.node-id must be between 0 and " + MAX_NODE_ID);
+            }
+            nodeId = configuredNodeId;
+        } else {
+            // Instances started one after another get consecutive node ids, wrapping after 1024
+            nodeId = idSequenceAllocator.nextUnbuffered("snowflake-node", () -> 0L) & MAX_NODE_ID;
+        }
+        log.info("Snowflake node id: {}", nodeId);
+    }
+
+    public String nextId(String prefix) {
+        long next;
+        while (true) {
+            long current = state.get();
+            long now = System.currentTimeMillis();
+            next = now > current >>> SEQUENCE_BITS ? now << SEQUENCE_BITS : current + 1;
+            if (state.compareAndSet(current, next)) {
+                break;
+            }
+        }
+
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        long suffix = (millis % 1000) << (NODE_BITS + SEQUENCE_BITS) | nodeId << SEQUENCE_BITS | sequence;
+        return prefix + '-' + formatSecond(millis / 1000) + '-' + String.format("%08X", suffix);
+    }
+
+    // Consecutive ids mostly fall in the same second, so its text is formatted once
+    private String formatSecond(long epochSecond) {
+        SecondText cached = secondText;
+        if (cached.epochSecond == epochSecond) {
+            return cached.text;
+        }
+        String text = SECOND_FORMATTER.format(Instant.ofEpochSecond(epochSecond));
+        secondText = new SecondText(epochSecond, text);
+        return text;
+    }
+
+    private static final class SecondText {
+        private final long epochSecond;
+        private final String text;
+
+        private SecondText(long epochSecond, String text) {
+            this.epochSecond = epochSecond;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.ecart.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Hierarchical timing wheel: four levels of 64 slots, each level's slot spanning a full
+// revolution of the level below. Scheduling and expiry are O(1) per entry; entries are
+// cascaded towards level 0 as their deadline approaches. Not thread-safe, callers synchronize.
+public class TimingWheel<K> {
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final List<List<List<Entry<K>>>> levels = new ArrayList<>(LEVELS);
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (int level = 0; level < LEVELS; level++) {
+            List<List<Entry<K>>> slots = new ArrayList<>(WHEEL_SIZE);
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                slots.add(new ArrayList<>());
+            }
+            levels.add(slots);
+        }
+    }
+
+    public void schedule(K key, long deadlineMillis) {
+        long deadlineTick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        // The current tick's slot has already been processed, so the earliest is the next one
+        place(new Entry<>(key, deadlineTick), currentTick + 1);
+        size++;
+    }
+
+    // Advances to nowMillis and returns the keys whose deadline has passed
+    public List<K> advance(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                int shift = WHEEL_BITS * level;
+                if ((currentTick & ((1L << shift) - 1)) == 0) {
+                    int slot = (int) ((currentTick >>> shift) & WHEEL_MASK);
+                    for (Entry<K> entry : drain(level, slot)) {
+                        place(entry, currentTick);
+                    }
+                }
+            }
+
+            for (Entry<K> entry : drain(0, (int) (currentTick & WHEEL_MASK))) {
+                if (entry.deadlineTick <= currentTick) {
+                    expired.add(entry.key);
+                    size--;
+                } else {
+                    place(entry, currentTick + 1);
+                }
+            }
+        }
+        return expired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void place(Entry<K> entry, long earliestTick) {
+        long tick = Math.max(entry.deadlineTick, earliestTick);
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = WHEEL_BITS * level;
+            if ((tick >>> shift) - (currentTick >>> shift) < WHEEL_SIZE) {
+                levels.get(level).get((int) ((tick >>> shift) & WHEEL_MASK)).add(entry);
+                return;
+            }
+        }
+        // Beyond the outermost wheel: park in its furthest slot and re-place on cascade
+        int shift = WHEEL_BITS * (LEVELS - 1);
+        int slot = (int) (((currentTick >>> shift) + WHEEL_SIZE - 1) & WHEEL_MASK);
+        levels.get(LEVELS - 1).get(slot).add(entry);
+    }
+
+    private List<Entry<K>> drain(int level, int slot) {
+        List<Entry<K>> entries = levels.get(level).get(slot);
+        if (entries.isEmpty()) {
+            return entries;
+        }
+        levels.get(level).set(slot, new ArrayList<>());
+        return entries;
+    }
+
+    private static final class Entry<K> {
+        private final K key;
+        private final long deadlineTick;
+
+        private Entry(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
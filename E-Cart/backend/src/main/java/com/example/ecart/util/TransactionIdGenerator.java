@@ -1,19 +1,15 @@
 package com.example.ecart.util;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.UUID;
-
+// TXN-yyyyMMddHHmmss-XXXXXXXX, unique by construction (see SnowflakeIdGenerator)
 @Component
 public class TransactionIdGenerator {
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    @Autowired
+    private SnowflakeIdGenerator snowflakeIdGenerator;
 
     public String generateTransactionId() {
-        String timestamp = LocalDateTime.now().format(DATE_FORMATTER);
-        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return String.format("TXN-%s-%s", timestamp, uuid);
+        return snowflakeIdGenerator.nextId("TXN");
     }
 }
-
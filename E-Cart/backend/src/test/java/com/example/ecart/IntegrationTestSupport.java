@@ -0,0 +1,84 @@
+package com.example.ecart;
+
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.Product;
+import com.example.ecart.repository.CustomerRepository;
+import com.example.ecart.repository.ProductRepository;
+import com.example.ecart.util.CustomerIdGenerator;
+import com.example.ecart.util.ProductIdGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+// Spring context on an in-memory database. Journals, snapshots and file stores go to a fresh
+// directory per test JVM, so nothing is replayed from an earlier run.
+@SpringBootTest
+@ActiveProfiles("test")
+public abstract class IntegrationTestSupport {
+    private static final Path DATA_DIR = createDataDir();
+
+    @Autowired
+    protected CustomerRepository customerRepository;
+
+    @Autowired
+    protected ProductRepository productRepository;
+
+    @Autowired
+    protected CustomerIdGenerator customerIdGenerator;
+
+    @Autowired
+    protected ProductIdGenerator productIdGenerator;
+
+    @DynamicPropertySource
+    static void dataDirectories(DynamicPropertyRegistry registry) {
+        registry.add("cart.journal.dir", () -> DATA_DIR.resolve("cart-journal").toString());
+        registry.add("cart.store.spill-dir", () -> DATA_DIR.resolve("cart-spill").toString());
+        registry.add("inventory.holds.snapshot-file", () -> DATA_DIR.resolve("inventory-holds.snapshot").toString());
+        registry.add("flash-sale.dir", () -> DATA_DIR.resolve("flash-sale").toString());
+        registry.add("invoice.store.dir", () -> DATA_DIR.resolve("invoices").toString());
+    }
+
+    protected Customer createCustomer() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return customerRepository.save(Customer.builder()
+                .customerId(customerIdGenerator.generateCustomerId())
+                .name("Test Customer " + suffix)
+                .country("India")
+                .state("Maharashtra")
+                .city("Mumbai")
+                .address1("1 Test Street")
+                .zipCode("400001")
+                .phoneNumber("9876543210")
+                .email("customer-" + suffix + "@example.com")
+                .passwordHash("not-used")
+                .build());
+    }
+
+    protected Product createProduct(int quantityAvailable, String price) {
+        String productId = productIdGenerator.generateProductId();
+        return productRepository.save(Product.builder()
+                .productId(productId)
+                .name("Test Product " + productId)
+                .price(new BigDecimal(price))
+                .category(Product.ProductCategory.OTHER)
+                .quantityAvailable(quantityAvailable)
+                .build());
+    }
+
+    private static Path createDataDir() {
+        try {
+            return Files.createTempDirectory("ecart-test");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.ecart.benchmark;
+
+import com.example.ecart.service.CartJournal;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Cart mutations per second: the plain in-memory map CartService used before the journal,
+// against the same map plus a journal record per mutation.
+//
+//   mvn test-compile exec:java -Dexec.classpathScope=test \
+//       -Dexec.mainClass=com.example.ecart.benchmark.CartJournalBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartJournalBenchmark {
+    private static final int CUSTOMERS = 10000;
+    private static final int PRODUCTS = 50;
+
+    private final Map<String, Map<String, Integer>> carts = new ConcurrentHashMap<>();
+    private Path dir;
+    private CartJournal journal;
+
+    @Setup
+    public void open() throws IOException {
+        dir = Files.createTempDirectory("cart-journal-bench");
+        journal = new CartJournal();
+        ReflectionTestUtils.setField(journal, "journalDir", dir.toString());
+        ReflectionTestUtils.setField(journal, "journalSizeMb", 64);
+        ReflectionTestUtils.setField(journal, "compactAfter", 100000);
+        journal.open(this::copyCarts);
+    }
+
+    @TearDown
+    public void close() throws IOException {
+        journal.close();
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void mapOnly() {
+        put(false);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void journaled() {
+        put(true);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void mapOnly8Threads() {
+        put(false);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void journaled8Threads() {
+        put(true);
+    }
+
+    private void put(boolean journaled) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String customerId = "CUST-20240101-" + random.nextInt(CUSTOMERS);
+        String productId = String.format("%03d", random.nextInt(PRODUCTS));
+        int quantity = random.nextInt(1, 10);
+        carts.computeIfAbsent(customerId, k -> new ConcurrentHashMap<>()).put(productId, quantity);
+        if (journaled) {
+            journal.recordPut(customerId, productId, quantity);
+        }
+    }
+
+    private Map<String, Map<String, Integer>> copyCarts() {
+        Map<String, Map<String, Integer>> copy = new HashMap<>();
+        carts.forEach((customerId, cart) -> copy.put(customerId, new HashMap<>(cart)));
+        return copy;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CartJournalBenchmark.class.getSimpleName()).build()).run();
+    }
+}
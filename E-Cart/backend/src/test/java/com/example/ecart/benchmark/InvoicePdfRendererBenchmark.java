@@ -0,0 +1,84 @@
+package com.example.ecart.benchmark;
+
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.Invoice;
+import com.example.ecart.domain.entity.Order;
+import com.example.ecart.domain.entity.OrderItem;
+import com.example.ecart.domain.entity.Product;
+import com.example.ecart.service.InvoicePdfRenderer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Invoice renders per second through one shared renderer, alone and from four threads, for a
+// short and a long invoice. Output is discarded so only layout and PDF encoding are measured.
+//
+//   mvn test-compile exec:java -Dexec.classpathScope=test \
+//       -Dexec.mainClass=com.example.ecart.benchmark.InvoicePdfRendererBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoicePdfRendererBenchmark {
+    @Param({"5", "100"})
+    public int lines;
+
+    private final InvoicePdfRenderer renderer = new InvoicePdfRenderer();
+    private Invoice invoice;
+    private List<OrderItem> items;
+
+    @Setup
+    public void build() {
+        Customer customer = Customer.builder()
+                .customerId("C1")
+                .name("Benchmark Customer")
+                .phoneNumber("9876543210")
+                .address1("1 Test Street")
+                .zipCode("400001")
+                .build();
+        Order order = Order.builder().id(UUID.randomUUID()).orderId("ORD1").customer(customer).build();
+        invoice = Invoice.builder()
+                .id(UUID.randomUUID())
+                .order(order)
+                .transactionId("TXN1")
+                .timestamp(LocalDateTime.of(2026, 1, 1, 12, 0))
+                .build();
+        items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            items.add(OrderItem.builder()
+                    .order(order)
+                    .product(Product.builder().productId("P" + i).build())
+                    .productName("Product " + i)
+                    .unitPrice(new BigDecimal("19.99"))
+                    .quantity(1 + i % 4)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void render() {
+        renderer.render(invoice, items, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void render4Threads() {
+        renderer.render(invoice, items, OutputStream.nullOutputStream());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(InvoicePdfRendererBenchmark.class.getSimpleName()).build()).run();
+    }
+}
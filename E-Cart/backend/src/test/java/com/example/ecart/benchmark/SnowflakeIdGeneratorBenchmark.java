@@ -0,0 +1,49 @@
+package com.example.ecart.benchmark;
+
+import com.example.ecart.util.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Order/transaction ids per second from one generator, alone and contended by eight threads.
+// One node can issue at most 4096 ids per millisecond; beyond that the sequence borrows from
+// the following milliseconds.
+//
+//   mvn test-compile exec:java -Dexec.classpathScope=test \
+//       -Dexec.mainClass=com.example.ecart.benchmark.SnowflakeIdGeneratorBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnowflakeIdGeneratorBenchmark {
+    private SnowflakeIdGenerator generator;
+
+    @Setup
+    public void init() {
+        generator = new SnowflakeIdGenerator();
+        ReflectionTestUtils.setField(generator, "configuredNodeId", 1L);
+        generator.init();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String nextId() {
+        return generator.nextId("ORD");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String nextId8Threads() {
+        return generator.nextId("ORD");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SnowflakeIdGeneratorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
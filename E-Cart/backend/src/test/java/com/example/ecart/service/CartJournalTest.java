@@ -0,0 +1,304 @@
+package com.example.ecart.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartJournalTest {
+    private static final int SEGMENT_HEADER = 8;
+    private static final int RECORD_HEADER = 8;
+
+    @TempDir
+    Path dir;
+
+    private final Map<String, Map<String, Integer>> live = new ConcurrentHashMap<>();
+    private CartJournal journal;
+
+    @AfterEach
+    void closeJournal() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void replaysMutationsAfterRestart() {
+        Map<String, Map<String, Integer>> recovered = open(64, 100000);
+        assertThat(recovered).isEmpty();
+
+        put("CUST-1", "001", 2);
+        put("CUST-1", "002", 3);
+        remove("CUST-1", "002");
+        put("CUST-2", "001", 5);
+        clear("CUST-2");
+        put("CUST-3", "003", 1);
+
+        assertThat(reopen()).isEqualTo(Map.of(
+                "CUST-1", Map.of("001", 2),
+                "CUST-3", Map.of("003", 1)));
+    }
+
+    @Test
+    void compactionKeepsEveryCart() {
+        open(1, 50);
+        for (int i = 0; i < 5000; i++) {
+            put("CUST-" + (i % 37), String.format("%03d", i % 11), i);
+            if (i % 7 == 0) {
+                remove("CUST-" + (i % 37), String.format("%03d", (i + 3) % 11));
+            }
+        }
+
+        assertThat(reopen()).isEqualTo(copy(live));
+    }
+
+    @Test
+    void fullSegmentSwitchesWithoutLosingRecords() {
+        // 1 MB segments hold roughly 40,000 of these records
+        open(1, Integer.MAX_VALUE);
+        for (int i = 0; i < 200000; i++) {
+            put("CUST-" + (i % 1000), "001", i);
+        }
+
+        assertThat(reopen()).isEqualTo(copy(live));
+    }
+
+    @Test
+    void concurrentAppendsAcrossCompactionsLoseNothing() throws Exception {
+        open(1, 1000);
+        // Each thread is the only writer of its customers, as CartService's per-cart lock ensures
+        runThreads(64, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 2000; i++) {
+                String customerId = "CUST-" + thread + "-" + (i % 4);
+                String productId = String.format("%03d", random.nextInt(8));
+                if (random.nextInt(5) == 0) {
+                    remove(customerId, productId);
+                } else {
+                    put(customerId, productId, i + 1);
+                }
+            }
+        });
+
+        assertThat(reopen()).isEqualTo(copy(live));
+    }
+
+    @Test
+    void concurrentAppendsForOneCustomerReplayInLockOrder() throws Exception {
+        open(1, 1000);
+        Object cartLock = new Object();
+        runThreads(64, thread -> {
+            for (int i = 0; i < 500; i++) {
+                synchronized (cartLock) {
+                    Map<String, Integer> cart = live.get("CUST-1");
+                    put("CUST-1", "001", (cart == null ? 0 : cart.getOrDefault("001", 0)) + 1);
+                }
+            }
+        });
+
+        assertThat(reopen()).isEqualTo(Map.of("CUST-1", Map.of("001", 64 * 500)));
+    }
+
+    @Test
+    void discardsRecordTornByKillBeforeItsLength() throws Exception {
+        open(64, 100000);
+        put("CUST-1", "001", 1);
+        put("CUST-1", "002", 2);
+        put("CUST-1", "003", 3);
+        int torn = recordOffset(2, "CUST-1", "003");
+        journal.close();
+        journal = null;
+
+        // A writer killed after the payload and crc but before the length leaves a zero length
+        zeroLength(activeSegment(), torn);
+
+        Map<String, Map<String, Integer>> recovered = open(64, 100000);
+        assertThat(recovered).isEqualTo(Map.of("CUST-1", Map.of("001", 1, "002", 2)));
+
+        // Appends after the recovery land where the torn record was and survive the next restart
+        live.clear();
+        live.putAll(copy(recovered));
+        put("CUST-1", "004", 4);
+        assertThat(reopen()).isEqualTo(Map.of("CUST-1", Map.of("001", 1, "002", 2, "004", 4)));
+    }
+
+    @Test
+    void skipsRecordOfAppendKilledWhileLaterOnesCompleted() throws Exception {
+        open(64, 100000);
+        put("CUST-1", "001", 1);
+        put("CUST-2", "001", 2);
+        int gap = recordOffset(1, "CUST-2", "001");
+        put("CUST-3", "001", 3);
+        journal.close();
+        journal = null;
+
+        // Appends reserve their bytes concurrently, so CUST-3's record can be complete while
+        // CUST-2's writer died before writing its length
+        zeroLength(activeSegment(), gap);
+
+        assertThat(open(64, 100000)).isEqualTo(Map.of(
+                "CUST-1", Map.of("001", 1),
+                "CUST-3", Map.of("001", 3)));
+    }
+
+    @Test
+    void recoversAcknowledgedMutationsAfterProcessIsKilled() throws Exception {
+        Process process = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                KilledWriter.class.getName(), dir.toString())
+                .redirectErrorStream(true)
+                .start();
+
+        // Highest quantity per customer the writer reported as journaled before it was killed
+        Map<String, Integer> acknowledged = new HashMap<>();
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lines = 0;
+            while (lines < 50000 && (line = out.readLine()) != null) {
+                String[] parts = line.split(" ");
+                assertThat(parts).as(line).hasSize(2);
+                acknowledged.merge(parts[0], Integer.parseInt(parts[1]), Math::max);
+                lines++;
+            }
+            process.destroyForcibly();
+            assertThat(process.waitFor(30, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(acknowledged).isNotEmpty();
+
+        Map<String, Map<String, Integer>> recovered = open(1, 500);
+        acknowledged.forEach((customerId, quantity) ->
+                assertThat(recovered.get(customerId).get("001")).as(customerId).isGreaterThanOrEqualTo(quantity));
+    }
+
+    // Appends from several threads with frequent compactions and segment switches until killed
+    static final class KilledWriter {
+        public static void main(String[] args) {
+            Map<String, Map<String, Integer>> carts = new ConcurrentHashMap<>();
+            CartJournal journal = newJournal(args[0], 1, 500);
+            carts.putAll(journal.open(() -> copy(carts)));
+            for (int t = 0; t < 8; t++) {
+                String customerId = "CUST-" + t;
+                new Thread(() -> {
+                    for (int quantity = 1; ; quantity++) {
+                        carts.computeIfAbsent(customerId, k -> new ConcurrentHashMap<>()).put("001", quantity);
+                        journal.recordPut(customerId, "001", quantity);
+                        synchronized (System.out) {
+                            System.out.println(customerId + " " + quantity);
+                        }
+                    }
+                }).start();
+            }
+        }
+    }
+
+    static CartJournal newJournal(String journalDir, int sizeMb, int compactAfter) {
+        CartJournal journal = new CartJournal();
+        ReflectionTestUtils.setField(journal, "journalDir", journalDir);
+        ReflectionTestUtils.setField(journal, "journalSizeMb", sizeMb);
+        ReflectionTestUtils.setField(journal, "compactAfter", compactAfter);
+        return journal;
+    }
+
+    static Map<String, Map<String, Integer>> copy(Map<String, Map<String, Integer>> carts) {
+        Map<String, Map<String, Integer>> copy = new HashMap<>();
+        carts.forEach((customerId, cart) -> copy.put(customerId, new HashMap<>(cart)));
+        return copy;
+    }
+
+    private Map<String, Map<String, Integer>> open(int sizeMb, int compactAfter) {
+        journal = newJournal(dir.toString(), sizeMb, compactAfter);
+        return journal.open(() -> copy(live));
+    }
+
+    private Map<String, Map<String, Integer>> reopen() {
+        int sizeMb = (int) ReflectionTestUtils.getField(journal, "journalSizeMb");
+        int compactAfter = (int) ReflectionTestUtils.getField(journal, "compactAfter");
+        journal.close();
+        return copy(open(sizeMb, compactAfter));
+    }
+
+    private void runThreads(int count, IntConsumer body) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < count; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    body.accept(thread);
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(failures).isEmpty();
+    }
+
+    // Mutations are applied to the live carts before they are journaled, as CartService does
+    private void put(String customerId, String productId, int quantity) {
+        live.computeIfAbsent(customerId, k -> new ConcurrentHashMap<>()).put(productId, quantity);
+        journal.recordPut(customerId, productId, quantity);
+    }
+
+    private void remove(String customerId, String productId) {
+        Map<String, Integer> cart = live.get(customerId);
+        if (cart != null) {
+            cart.remove(productId);
+        }
+        journal.recordRemove(customerId, productId);
+    }
+
+    private void clear(String customerId) {
+        live.remove(customerId);
+        journal.recordClear(customerId);
+    }
+
+    // Offset of the index-th record (0-based) when every earlier record has this record's size
+    private int recordOffset(int index, String customerId, String productId) {
+        return SEGMENT_HEADER + index * (RECORD_HEADER + payloadLength(customerId, productId));
+    }
+
+    private int payloadLength(String customerId, String productId) {
+        return 1 + 2 + customerId.length() + 2 + productId.length() + 4;
+    }
+
+    // A fresh journal appends to its second segment
+    private Path activeSegment() {
+        return dir.resolve("cart-1.journal");
+    }
+
+    private void zeroLength(Path segment, int offset) throws Exception {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4), offset);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.ecart.service;
+
+import com.example.ecart.IntegrationTestSupport;
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Many threads mutating carts at once: every increment must be in the final quantities
+class CartServiceConcurrencyTest extends IntegrationTestSupport {
+    private static final int THREADS = 64;
+    private static final int ADDS_PER_THREAD = 30;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartJournal cartJournal;
+
+    @Value("${cart.journal.dir}")
+    private String journalDir;
+
+    @TempDir
+    Path journalCopy;
+
+    @Test
+    void concurrentAddsToOneCartAreNotLost() throws Exception {
+        Customer customer = createCustomer();
+        Product product = createProduct(1_000_000, "10.00");
+
+        long elapsed = runConcurrently(thread ->
+                cartService.addToCart(customer.getCustomerId(), product.getProductId(), 1));
+
+        assertThat(cartService.getCartQuantities(customer.getCustomerId()))
+                .containsEntry(product.getProductId(), THREADS * ADDS_PER_THREAD);
+        report("one cart", THREADS * ADDS_PER_THREAD, elapsed);
+    }
+
+    @Test
+    void concurrentAddsAcrossCartsAreNotLost() throws Exception {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            customers.add(createCustomer());
+        }
+        Product first = createProduct(1_000_000, "10.00");
+        Product second = createProduct(1_000_000, "20.00");
+
+        // Each customer is shared by four threads; each thread alternates the two products
+        long elapsed = runConcurrently(thread -> {
+            String customerId = customers.get(thread % customers.size()).getCustomerId();
+            cartService.addToCart(customerId, first.getProductId(), 1);
+            cartService.addToCart(customerId, second.getProductId(), 2);
+        });
+
+        int threadsPerCustomer = THREADS / customers.size();
+        for (Customer customer : customers) {
+            assertThat(cartService.getCartQuantities(customer.getCustomerId()))
+                    .containsEntry(first.getProductId(), threadsPerCustomer * ADDS_PER_THREAD)
+                    .containsEntry(second.getProductId(), 2 * threadsPerCustomer * ADDS_PER_THREAD);
+        }
+        report("16 carts", 2 * THREADS * ADDS_PER_THREAD, elapsed);
+    }
+
+    @Test
+    void concurrentUpdatesAndRemovesLeaveAConsistentCart() throws Exception {
+        Customer customer = createCustomer();
+        Product kept = createProduct(1_000_000, "10.00");
+        Product churned = createProduct(1_000_000, "10.00");
+        cartService.addToCart(customer.getCustomerId(), kept.getProductId(), 1);
+
+        // Half the threads add to the kept line, the others add and remove the churned one
+        long elapsed = runConcurrently(thread -> {
+            if (thread % 2 == 0) {
+                cartService.addToCart(customer.getCustomerId(), kept.getProductId(), 1);
+            } else {
+                cartService.addToCart(customer.getCustomerId(), churned.getProductId(), 1);
+                try {
+                    cartService.removeFromCart(customer.getCustomerId(), churned.getProductId());
+                } catch (RuntimeException e) {
+                    // Another thread removed the line first
+                }
+            }
+        });
+
+        assertThat(cartService.getCartQuantities(customer.getCustomerId()))
+                .containsEntry(kept.getProductId(), 1 + THREADS / 2 * ADDS_PER_THREAD);
+        report("update/remove", THREADS * ADDS_PER_THREAD * 3 / 2, elapsed);
+    }
+
+    // Clears racing adds for one customer: whatever the interleaving, replaying the journal
+    // must give back the cart the service ended up with
+    @Test
+    void journalReplaysConcurrentClearsAndAdds() throws Exception {
+        Customer customer = createCustomer();
+        Product product = createProduct(1_000_000, "10.00");
+
+        long elapsed = runConcurrently(thread -> {
+            if (thread % 2 == 0) {
+                cartService.clearCart(customer.getCustomerId());
+            } else {
+                cartService.addToCart(customer.getCustomerId(), product.getProductId(), 1);
+            }
+        });
+
+        assertThat(replayJournal().getOrDefault(customer.getCustomerId(), new HashMap<>()))
+                .isEqualTo(cartService.getCartQuantities(customer.getCustomerId()));
+        report("clear/add", THREADS * ADDS_PER_THREAD, elapsed);
+    }
+
+    // Runs ADDS_PER_THREAD iterations on each of THREADS threads, all released at once.
+    // Returns the elapsed nanoseconds.
+    private long runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                        task.run(thread);
+                    }
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - started;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Carts a restart would recover, read from a copy of the live journal
+    private Map<String, Map<String, Integer>> replayJournal() throws Exception {
+        FileSystemUtils.copyRecursively(Paths.get(journalDir), journalCopy);
+        CartJournal journal = CartJournalTest.newJournal(journalCopy.toString(),
+                (int) ReflectionTestUtils.getField(cartJournal, "journalSizeMb"),
+                (int) ReflectionTestUtils.getField(cartJournal, "compactAfter"));
+        try {
+            return journal.open(HashMap::new);
+        } finally {
+            journal.close();
+        }
+    }
+
+    private void report(String scenario, long operations, long elapsedNanos) {
+        System.out.printf("Cart mutations (%s, %d threads): %d in %d ms, %.0f ops/s%n", scenario, THREADS,
+                operations, elapsedNanos / 1_000_000, operations * 1e9 / elapsedNanos);
+    }
+
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
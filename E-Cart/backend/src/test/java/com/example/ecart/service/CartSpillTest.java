@@ -0,0 +1,64 @@
+package com.example.ecart.service;
+
+import com.example.ecart.IntegrationTestSupport;
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartSpillTest extends IntegrationTestSupport {
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private InventoryReservationService inventoryReservationService;
+
+    @Test
+    void spilledCartIsRestoredWithItsLines() {
+        Customer customer = createCustomer();
+        Product product = createProduct(10, "10.00");
+        cartService.addToCart(customer.getCustomerId(), product.getProductId(), 4);
+
+        spillAllCarts();
+
+        assertThat(cartService.getCartQuantities(customer.getCustomerId())).containsEntry(product.getProductId(), 4);
+        assertThat(heldByOthers(product)).isEqualTo(4);
+    }
+
+    // Clearing a cart that sits on disk must give its units back straight away, not when the
+    // holds lapse
+    @Test
+    void clearingSpilledCartReleasesItsHolds() {
+        Customer customer = createCustomer();
+        Product product = createProduct(10, "10.00");
+        cartService.addToCart(customer.getCustomerId(), product.getProductId(), 4);
+        assertThat(heldByOthers(product)).isEqualTo(4);
+
+        spillAllCarts();
+        cartService.clearCart(customer.getCustomerId());
+
+        assertThat(heldByOthers(product)).isZero();
+        assertThat(cartService.getCartQuantities(customer.getCustomerId())).isEmpty();
+    }
+
+    private void spillAllCarts() {
+        long spilled = cartService.getStoreMetrics().get("spilledTotal");
+        Object maxResident = ReflectionTestUtils.getField(cartService, "maxResidentCarts");
+        ReflectionTestUtils.setField(cartService, "maxResidentCarts", 0);
+        try {
+            cartService.expireAndSpill();
+        } finally {
+            ReflectionTestUtils.setField(cartService, "maxResidentCarts", maxResident);
+        }
+        assertThat(cartService.getStoreMetrics().get("spilledTotal")).isGreaterThan(spilled);
+        assertThat(cartService.getStoreMetrics().get("residentCarts")).isZero();
+    }
+
+    // Units other customers' holds keep from a new customer wanting one
+    private int heldByOthers(Product product) {
+        return inventoryReservationService.requiredStock("CUST-NOBODY", product.getProductId(), 1) - 1;
+    }
+}
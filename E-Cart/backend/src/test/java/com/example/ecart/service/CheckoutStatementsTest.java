@@ -0,0 +1,124 @@
+package com.example.ecart.service;
+
+import com.example.ecart.IntegrationTestSupport;
+import com.example.ecart.SqlStatementCounter;
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.Order;
+import com.example.ecart.domain.entity.OrderItem;
+import com.example.ecart.domain.entity.Product;
+import com.example.ecart.repository.OrderItemRepository;
+import com.example.ecart.repository.OrderRepository;
+import com.example.ecart.util.OrderIdGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Checkout latency and Hibernate statements at 1, 10 and 100 cart lines, for the batched
+// createOrderFromCart and for the per-line loop it replaced. Stock updates go through
+// JdbcTemplate and are not counted on either side.
+class CheckoutStatementsTest extends IntegrationTestSupport {
+    private static final int[] LINES = {1, 10, 100};
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderIdGenerator orderIdGenerator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void checkoutStatementsDoNotGrowWithCartLines() {
+        // Warms up query plans and the connection pool so the first size is not penalised
+        orderService.createOrderFromCart(customerWithCart(1).getCustomerId(), "1 Test Street");
+
+        Map<Integer, Integer> batched = new TreeMap<>();
+        for (int lines : LINES) {
+            Customer customer = customerWithCart(lines);
+            SqlStatementCounter.reset();
+            long started = System.nanoTime();
+            orderService.createOrderFromCart(customer.getCustomerId(), "1 Test Street");
+            long elapsed = System.nanoTime() - started;
+            batched.put(lines, SqlStatementCounter.count());
+
+            Customer baseline = customerWithCart(lines);
+            SqlStatementCounter.reset();
+            started = System.nanoTime();
+            perLineCheckout(baseline.getCustomerId());
+            long baselineElapsed = System.nanoTime() - started;
+            int baselineStatements = SqlStatementCounter.count();
+
+            System.out.printf("Checkout %3d lines: batched %3d statements %6.1f ms | per-line %3d statements %6.1f ms%n",
+                    lines, batched.get(lines), elapsed / 1e6, baselineStatements, baselineElapsed / 1e6);
+            if (lines >= 10) {
+                assertThat(batched.get(lines)).isLessThan(baselineStatements);
+            }
+        }
+
+        // Order items are inserted in JDBC batches of hibernate.jdbc.batch_size (50)
+        assertThat(batched.get(10)).isEqualTo(batched.get(1));
+        assertThat(batched.get(100)).isLessThanOrEqualTo(batched.get(1) + 1);
+    }
+
+    private Customer customerWithCart(int lines) {
+        Customer customer = createCustomer();
+        for (int i = 0; i < lines; i++) {
+            Product product = createProduct(1000, "10.00");
+            cartService.addToCart(customer.getCustomerId(), product.getProductId(), 1);
+        }
+        return customer;
+    }
+
+    // The data access of createOrderFromCart before it was batched: one product lookup, one
+    // stock update and one item insert per line. The old cart view also looked every product
+    // up once more, which is left out here. Rolled back afterwards.
+    private void perLineCheckout(String customerId) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Customer customer = customerRepository.findByCustomerId(customerId).orElseThrow();
+            Map<String, Integer> cart = cartService.getCartQuantities(customerId);
+            Order order = orderRepository.save(Order.builder()
+                    .orderId(orderIdGenerator.generateOrderId())
+                    .customer(customer)
+                    .status(Order.OrderStatus.CONFIRMED)
+                    .addressSnapshot("1 Test Street")
+                    .totalAmount(BigDecimal.ZERO)
+                    .paymentMode(Order.PaymentMode.CREDIT_CARD)
+                    .build());
+            cart.forEach((productId, quantity) -> {
+                Product product = productRepository.findByProductId(productId).orElseThrow();
+                inventoryService.decrement(productId, quantity);
+                orderItemRepository.save(OrderItem.builder()
+                        .order(order)
+                        .product(product)
+                        .productName(product.getName())
+                        .category(product.getCategory())
+                        .unitPrice(product.getPrice())
+                        .quantity(quantity)
+                        .description(product.getDescription())
+                        .build());
+            });
+            orderRepository.flush();
+            status.setRollbackOnly();
+        });
+    }
+}
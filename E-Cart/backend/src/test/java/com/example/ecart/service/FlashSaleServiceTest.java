@@ -0,0 +1,207 @@
+package com.example.ecart.service;
+
+import com.example.ecart.IntegrationTestSupport;
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.FlashSaleCheckpoint;
+import com.example.ecart.domain.entity.Product;
+import com.example.ecart.dto.response.OrderResponse;
+import com.example.ecart.repository.FlashSaleCheckpointRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlashSaleServiceTest extends IntegrationTestSupport {
+    private static final int THREADS = 16;
+    private static final int STOCK = 300;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private FlashSaleCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${flash-sale.dir}")
+    private String flashSaleDir;
+
+    @TempDir
+    Path crashCopy;
+
+    @Test
+    void checkoutAndCancellationMoveFlashStock() {
+        Product product = createProduct(10, "50.00");
+        flashSaleService.enable(product.getProductId());
+        try {
+            OrderResponse order = checkout(product, 3);
+            assertThat(flashSaleService.getActiveProducts()).containsEntry(product.getProductId(), 7);
+
+            orderService.adminCancelOrder(order.getOrderId());
+            assertThat(flashSaleService.getActiveProducts()).containsEntry(product.getProductId(), 10);
+        } finally {
+            flashSaleService.disable(product.getProductId());
+        }
+        assertThat(stockRow(product)).isEqualTo(10);
+    }
+
+    // A crash right after the cancellation commits must not lose the units it gave back: the
+    // products row plus the unapplied log has to add up to the full stock at that instant
+    @Test
+    void cancellationIsLoggedBeforeItCommits() {
+        Product product = createProduct(10, "50.00");
+        flashSaleService.enable(product.getProductId());
+        try {
+            OrderResponse order = checkout(product, 3);
+
+            AtomicInteger recoverableStock = new AtomicInteger(-1);
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                orderService.adminCancelOrder(order.getOrderId());
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        recoverableStock.set(stockAfterCrash(product));
+                    }
+                });
+            });
+
+            assertThat(recoverableStock.get()).isEqualTo(10);
+        } finally {
+            flashSaleService.disable(product.getProductId());
+        }
+    }
+
+    // Many buyers checking out one flash-sale SKU until it sells out: exactly the stock is sold,
+    // and the row plus the unapplied log agree with the counters. Checkouts/s are printed next
+    // to the same run against a product sold from the products table.
+    @Test
+    void concurrentCheckoutsOfOneSkuSellExactlyTheStock() throws Exception {
+        Product baseline = createProduct(STOCK, "50.00");
+        long baselineElapsed = sellOut(baseline, () -> stockRow(baseline));
+
+        Product product = createProduct(STOCK, "50.00");
+        flashSaleService.enable(product.getProductId());
+        try {
+            long elapsed = sellOut(product, () -> flashSaleService.getActiveProducts().get(product.getProductId()));
+
+            assertThat(soldUnits(product)).isEqualTo(STOCK);
+            assertThat(flashSaleService.getActiveProducts()).containsEntry(product.getProductId(), 0);
+            assertThat(stockAfterCrash(product)).isEqualTo(0);
+            System.out.printf("Single-SKU checkouts, %d threads: flash sale %.0f/s, products table %.0f/s%n",
+                    THREADS, STOCK * 1e9 / elapsed, STOCK * 1e9 / baselineElapsed);
+        } finally {
+            flashSaleService.disable(product.getProductId());
+        }
+        assertThat(soldUnits(baseline)).isEqualTo(STOCK);
+        assertThat(stockRow(baseline)).isEqualTo(0);
+        assertThat(stockRow(product)).isEqualTo(0);
+    }
+
+    // Each thread's buyer checks out one unit at a time until remaining reports none left.
+    // Returns the elapsed nanoseconds.
+    private long sellOut(Product product, IntSupplier remaining) throws Exception {
+        List<Customer> buyers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            buyers.add(createCustomer());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (Customer buyer : buyers) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    while (remaining.getAsInt() > 0) {
+                        try {
+                            cartService.addToCart(buyer.getCustomerId(), product.getProductId(), 1);
+                            orderService.createOrderFromCart(buyer.getCustomerId(), "1 Test Street");
+                        } catch (RuntimeException e) {
+                            // Another buyer took the last units
+                        } finally {
+                            cartService.clearCart(buyer.getCustomerId());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - started;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int soldUnits(Product product) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(i.quantity), 0) FROM order_items i " +
+                "JOIN products p ON p.id = i.product_id WHERE p.product_id = ?", Integer.class, product.getProductId());
+    }
+
+    private OrderResponse checkout(Product product, int quantity) {
+        Customer customer = createCustomer();
+        cartService.addToCart(customer.getCustomerId(), product.getProductId(), quantity);
+        return orderService.createOrderFromCart(customer.getCustomerId(), "1 Test Street");
+    }
+
+    // What recovery would see if the process died now: the row plus the deltas of the WAL
+    // segments newer than the checkpoint. Write-backs are held off while the state is copied.
+    private int stockAfterCrash(Product product) {
+        synchronized (flashSaleService) {
+            try {
+                FileSystemUtils.copyRecursively(Paths.get(flashSaleDir), crashCopy);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            long appliedEpoch = checkpointRepository.findById(1).map(FlashSaleCheckpoint::getAppliedEpoch).orElse(0L);
+            int stock = stockRow(product);
+
+            FlashSaleWal wal = new FlashSaleWal();
+            ReflectionTestUtils.setField(wal, "walDir", crashCopy.toString());
+            for (Map<String, Integer> deltas : wal.open(appliedEpoch).values()) {
+                stock += deltas.getOrDefault(product.getProductId(), 0);
+            }
+            wal.close();
+            return stock;
+        }
+    }
+
+    private int stockRow(Product product) {
+        return jdbcTemplate.queryForObject("SELECT quantity_available FROM products WHERE product_id = ?",
+                Integer.class, product.getProductId());
+    }
+}
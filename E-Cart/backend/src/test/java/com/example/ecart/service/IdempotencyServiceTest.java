@@ -0,0 +1,173 @@
+package com.example.ecart.service;
+
+import com.example.ecart.IntegrationTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTest extends IntegrationTestSupport {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    private final AtomicInteger runs = new AtomicInteger();
+    private String customerId;
+    private String key;
+
+    @BeforeEach
+    void newKey() {
+        customerId = createCustomer().getCustomerId();
+        key = UUID.randomUUID().toString();
+    }
+
+    @Test
+    void completedKeyReplaysStoredResponse() {
+        IdempotencyService.Result first = idempotencyService.execute(customerId, key, "checkout", Map.of("cart", 1), this::order);
+        IdempotencyService.Result fromMemory = idempotencyService.execute(customerId, key, "checkout", Map.of("cart", 1), this::order);
+        forgetRecentResponses();
+        IdempotencyService.Result fromDatabase = idempotencyService.execute(customerId, key, "checkout", Map.of("cart", 1), this::order);
+
+        assertThat(runs).hasValue(1);
+        assertThat(first.isReplayed()).isFalse();
+        assertThat(fromMemory.isReplayed()).isTrue();
+        assertThat(fromDatabase.isReplayed()).isTrue();
+        assertThat(body(fromMemory)).isEqualTo(body(first)).isEqualTo("{\"orderId\":\"ORD-1\"}");
+        assertThat(body(fromDatabase)).isEqualTo(body(first));
+    }
+
+    @Test
+    void concurrentDuplicatesRunOnce() throws Exception {
+        List<IdempotencyService.Result> results = runConcurrently(() ->
+                idempotencyService.execute(customerId, key, "checkout", Map.of("cart", 1), () -> {
+                    sleep(200);
+                    return order();
+                }));
+
+        assertThat(runs).hasValue(1);
+        assertThat(results).filteredOn(result -> !result.isReplayed()).hasSize(1);
+        assertThat(results).allSatisfy(result -> assertThat(body(result)).isEqualTo("{\"orderId\":\"ORD-1\"}"));
+    }
+
+    // Duplicates of a payment wait on the running future rather than starting their own
+    @Test
+    void concurrentAsyncDuplicatesRunOnce() throws Exception {
+        CompletableFuture<Object> payment = new CompletableFuture<>();
+        List<CompletableFuture<IdempotencyService.Result>> pending = runConcurrently(() ->
+                idempotencyService.executeAsync(customerId, key, "payment", Map.of("amount", 10), () -> {
+                    runs.incrementAndGet();
+                    return payment;
+                }));
+        payment.complete(Map.of("status", "PAID"));
+
+        assertThat(runs).hasValue(1);
+        List<IdempotencyService.Result> results = new ArrayList<>();
+        for (CompletableFuture<IdempotencyService.Result> future : pending) {
+            results.add(future.get(10, TimeUnit.SECONDS));
+        }
+        assertThat(results).filteredOn(result -> !result.isReplayed()).hasSize(1);
+        assertThat(results).allSatisfy(result -> assertThat(body(result)).isEqualTo("{\"status\":\"PAID\"}"));
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() {
+        idempotencyService.execute(customerId, key, "checkout", Map.of("cart", 1), this::order);
+
+        assertThatThrownBy(() -> idempotencyService.execute(customerId, key, "checkout", Map.of("cart", 2), this::order))
+                .hasMessage("Idempotency-Key was already used for a different request");
+        forgetRecentResponses();
+        assertThatThrownBy(() -> idempotencyService.execute(customerId, key, "checkout", Map.of("cart", 2), this::order))
+                .hasMessage("Idempotency-Key was already used for a different request");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void failedOperationReleasesKey() {
+        assertThatThrownBy(() -> idempotencyService.execute(customerId, key, "checkout", Map.of("cart", 1), () -> {
+            runs.incrementAndGet();
+            throw new RuntimeException("Cart is empty");
+        })).hasMessage("Cart is empty");
+
+        IdempotencyService.Result retry = idempotencyService.execute(customerId, key, "checkout", Map.of("cart", 1), this::order);
+
+        assertThat(runs).hasValue(2);
+        assertThat(retry.isReplayed()).isFalse();
+        assertThat(body(retry)).isEqualTo("{\"orderId\":\"ORD-2\"}");
+    }
+
+    @Test
+    void failedAsyncOperationReleasesKey() throws Exception {
+        CompletableFuture<IdempotencyService.Result> declined = idempotencyService.executeAsync(customerId, key, "payment",
+                Map.of("amount", 10), () -> CompletableFuture.failedFuture(new RuntimeException("Payment declined: test")));
+        assertThat(declined).failsWithin(10, TimeUnit.SECONDS);
+
+        IdempotencyService.Result retry = idempotencyService.executeAsync(customerId, key, "payment", Map.of("amount", 10),
+                () -> CompletableFuture.completedFuture(Map.of("status", "PAID"))).get(10, TimeUnit.SECONDS);
+
+        assertThat(retry.isReplayed()).isFalse();
+        assertThat(body(retry)).isEqualTo("{\"status\":\"PAID\"}");
+    }
+
+    private Map<String, String> order() {
+        return Map.of("orderId", "ORD-" + runs.incrementAndGet());
+    }
+
+    private String body(IdempotencyService.Result result) {
+        return new String(result.getBody(), StandardCharsets.UTF_8);
+    }
+
+    // Drops the in-memory responses, as after a restart, so only the stored records remain
+    @SuppressWarnings("unchecked")
+    private void forgetRecentResponses() {
+        ((Map<String, ?>) ReflectionTestUtils.getField(idempotencyService, "entries")).clear();
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Calls task on THREADS threads, all released at once
+    private <T> List<T> runConcurrently(Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.ecart.service;
+
+import com.example.ecart.IntegrationTestSupport;
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.Product;
+import com.example.ecart.dto.response.OrderResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Hundreds of checkouts racing for one SKU: the guarded decrements must sell exactly the stock
+class InventoryConcurrencyTest extends IntegrationTestSupport {
+    private static final int CHECKOUTS = 300;
+    private static final int STOCK = 120;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Test
+    void parallelCheckoutsOfOneSkuSellExactlyTheStock() throws Exception {
+        Product product = createProduct(CHECKOUTS, "99.00");
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            Customer customer = createCustomer();
+            cartService.addToCart(customer.getCustomerId(), product.getProductId(), 1);
+            customers.add(customer);
+        }
+        // Every cart holds a unit, so only the guarded UPDATE can stop the overselling
+        inventoryService.setStock(product.getProductId(), STOCK);
+
+        Map<String, String> orders = new ConcurrentHashMap<>();
+        Queue<Throwable> rejected = new ConcurrentLinkedQueue<>();
+        runConcurrently(customers.size(), i -> {
+            String customerId = customers.get(i).getCustomerId();
+            try {
+                OrderResponse order = orderService.createOrderFromCart(customerId, "1 Test Street");
+                orders.put(order.getOrderId(), customerId);
+            } catch (RuntimeException e) {
+                rejected.add(e);
+            }
+        });
+
+        assertThat(orders).hasSize(STOCK);
+        assertThat(rejected).hasSize(CHECKOUTS - STOCK)
+                .allSatisfy(e -> assertThat(e).hasMessageStartingWith("Insufficient quantity for product"));
+        assertThat(stockOf(product)).isZero();
+
+        // Cancellations race too, half by the customer and half by an administrator
+        List<Map.Entry<String, String>> cancelled = new ArrayList<>(orders.entrySet()).subList(0, 80);
+        runConcurrently(cancelled.size(), i -> {
+            Map.Entry<String, String> order = cancelled.get(i);
+            if (i % 2 == 0) {
+                orderService.cancelOrder(order.getKey(), order.getValue(), "Changed my mind");
+            } else {
+                orderService.adminCancelOrder(order.getKey());
+            }
+        });
+
+        assertThat(stockOf(product)).isEqualTo(cancelled.size());
+    }
+
+    private int stockOf(Product product) {
+        return productRepository.findByProductId(product.getProductId()).orElseThrow().getQuantityAvailable();
+    }
+
+    // Runs task(0..count-1) on 64 threads, all released at once, and rethrows the first failure
+    private void runConcurrently(int count, IntTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface IntTask {
+        void run(int index);
+    }
+}
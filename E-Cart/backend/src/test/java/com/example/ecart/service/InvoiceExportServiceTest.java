@@ -0,0 +1,76 @@
+package com.example.ecart.service;
+
+import com.example.ecart.IntegrationTestSupport;
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.Invoice;
+import com.example.ecart.domain.entity.Order;
+import com.example.ecart.repository.InvoiceRepository;
+import com.example.ecart.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvoiceExportServiceTest extends IntegrationTestSupport {
+    @Autowired
+    private InvoiceExportService invoiceExportService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    // None of the invoices is stored yet: the export renders them all and records their files
+    @Test
+    void exportRendersMissingInvoices() throws Exception {
+        List<Invoice> invoices = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            invoices.add(invoicedOrder());
+        }
+
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        invoiceExportService.exportZip(LocalDate.now().minusDays(1), LocalDate.now().plusDays(1), zip);
+
+        Set<String> entries = new HashSet<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                assertThat(in.readAllBytes()).startsWith("%PDF".getBytes());
+                entries.add(entry.getName());
+            }
+        }
+        assertThat(entries).doesNotContain("FAILED.txt");
+        for (Invoice invoice : invoices) {
+            assertThat(entries).contains("invoice-" + invoice.getOrder().getOrderId() + ".pdf");
+            assertThat(invoiceRepository.findById(invoice.getId()).orElseThrow().getPdfSha256()).isNotNull();
+        }
+    }
+
+    private Invoice invoicedOrder() {
+        Customer customer = createCustomer();
+        cartService.addToCart(customer.getCustomerId(), createProduct(10, "15.00").getProductId(), 1);
+        String orderId = orderService.createOrderFromCart(customer.getCustomerId(), "1 Test Street").getOrderId();
+        Order order = orderRepository.findByOrderId(orderId).orElseThrow();
+        return invoiceService.generateInvoice(order, "TXN-" + orderId);
+    }
+}
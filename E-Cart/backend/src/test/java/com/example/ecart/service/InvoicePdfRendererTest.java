@@ -0,0 +1,103 @@
+package com.example.ecart.service;
+
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.Invoice;
+import com.example.ecart.domain.entity.Order;
+import com.example.ecart.domain.entity.OrderItem;
+import com.example.ecart.domain.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// One renderer shared by many threads must produce exactly the bytes a lone render produces
+class InvoicePdfRendererTest {
+    private static final int INVOICES = 16;
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 5;
+
+    private final InvoicePdfRenderer renderer = new InvoicePdfRenderer();
+
+    @Test
+    void parallelRendersMatchSingleThreadedRenders() throws Exception {
+        List<Invoice> invoices = new ArrayList<>();
+        List<List<OrderItem>> items = new ArrayList<>();
+        List<byte[]> expected = new ArrayList<>();
+        for (int i = 0; i < INVOICES; i++) {
+            Invoice invoice = invoice(i);
+            invoices.add(invoice);
+            items.add(items(invoice.getOrder(), 1 + i * 3));
+            expected.add(render(invoice, items.get(i)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<byte[]>> renders = new ArrayList<>();
+        try {
+            for (int n = 0; n < INVOICES * ROUNDS; n++) {
+                int index = n % INVOICES;
+                renders.add(executor.submit(() -> {
+                    start.await();
+                    return render(invoices.get(index), items.get(index));
+                }));
+            }
+            start.countDown();
+            for (int n = 0; n < renders.size(); n++) {
+                assertThat(renders.get(n).get()).isEqualTo(expected.get(n % INVOICES));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private byte[] render(Invoice invoice, List<OrderItem> items) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        renderer.render(invoice, items, out);
+        return out.toByteArray();
+    }
+
+    private Invoice invoice(int n) {
+        Customer customer = Customer.builder()
+                .customerId("C" + n)
+                .name("Customer " + n)
+                .phoneNumber("9876543210")
+                .address1(n + " Test Street")
+                .zipCode("400001")
+                .build();
+        Order order = Order.builder()
+                .id(new UUID(1L, n))
+                .orderId("ORD" + n)
+                .customer(customer)
+                .build();
+        return Invoice.builder()
+                .id(new UUID(2L, n))
+                .order(order)
+                .transactionId("TXN" + n)
+                .timestamp(LocalDateTime.of(2026, 1, 1 + n, 12, 0))
+                .build();
+    }
+
+    private List<OrderItem> items(Order order, int count) {
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(OrderItem.builder()
+                    .order(order)
+                    .product(Product.builder().productId("P" + i).build())
+                    .productName("Product " + i)
+                    .unitPrice(new BigDecimal("19.99").add(BigDecimal.valueOf(i)))
+                    .quantity(1 + i % 4)
+                    .build());
+        }
+        return items;
+    }
+}
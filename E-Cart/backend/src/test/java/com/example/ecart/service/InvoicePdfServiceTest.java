@@ -0,0 +1,110 @@
+package com.example.ecart.service;
+
+import com.example.ecart.IntegrationTestSupport;
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.Invoice;
+import com.example.ecart.domain.entity.Order;
+import com.example.ecart.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvoicePdfServiceTest extends IntegrationTestSupport {
+    @Autowired
+    private InvoicePdfService invoicePdfService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${invoice.store.dir}")
+    private String storeDir;
+
+    @Test
+    void sameInvoiceRendersToTheSameBytes() throws Exception {
+        Invoice invoice = invoicedOrder();
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        invoiceService.writeInvoicePdf(invoice.getId(), first);
+        Thread.sleep(1100); // past the second the PDF dates would otherwise change on
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        invoiceService.writeInvoicePdf(invoice.getId(), second);
+
+        assertThat(second.toByteArray()).isEqualTo(first.toByteArray());
+    }
+
+    // Concurrent downloads of an invoice that is not stored yet share one render and one file
+    @Test
+    void concurrentDownloadsStoreOneFile() throws Exception {
+        Invoice invoice = invoicedOrder();
+        Set<Path> before = storedFiles();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Path>> downloads = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                downloads.add(executor.submit(() -> {
+                    start.await();
+                    return invoicePdfService.getPdf(invoice.getOrder().getOrderId());
+                }));
+            }
+            start.countDown();
+            Set<Path> served = new HashSet<>();
+            for (Future<Path> download : downloads) {
+                served.add(download.get());
+            }
+            assertThat(served).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Set<Path> added = storedFiles();
+        added.removeAll(before);
+        assertThat(added).hasSize(1);
+    }
+
+    private Invoice invoicedOrder() {
+        Customer customer = createCustomer();
+        cartService.addToCart(customer.getCustomerId(), createProduct(10, "40.00").getProductId(), 2);
+        String orderId = orderService.createOrderFromCart(customer.getCustomerId(), "1 Test Street").getOrderId();
+        Order order = orderRepository.findByOrderId(orderId).orElseThrow();
+        return invoiceService.generateInvoice(order, "TXN-" + orderId);
+    }
+
+    private Set<Path> storedFiles() throws IOException {
+        Path dir = Paths.get(storeDir);
+        if (!Files.exists(dir)) {
+            return new HashSet<>();
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(file -> file.toString().endsWith(".pdf")).collect(Collectors.toSet());
+        }
+    }
+}
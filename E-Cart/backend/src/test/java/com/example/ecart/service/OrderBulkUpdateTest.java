@@ -0,0 +1,146 @@
+package com.example.ecart.service;
+
+import com.example.ecart.IntegrationTestSupport;
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.dto.response.BulkOrderUpdateReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A mixed stream of forward moves, date-only changes, backward moves, unknown orders and
+// malformed lines, in CSV and in NDJSON, spanning three chunks of 1000 rows
+class OrderBulkUpdateTest extends IntegrationTestSupport {
+    private static final int ORDERS = 2400;
+    private static final int CHUNK = 1000;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void csvUpdatesMoveOrdersForwardOnly() throws Exception {
+        runMixedUpdate(false);
+    }
+
+    @Test
+    void ndjsonUpdatesMoveOrdersForwardOnly() throws Exception {
+        runMixedUpdate(true);
+    }
+
+    private void runMixedUpdate(boolean ndjson) throws Exception {
+        String prefix = "UPD-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        seedOrders(prefix);
+
+        StringBuilder input = new StringBuilder(ndjson ? "" : "orderId,status,arrivingDate\n");
+        Map<String, String> expected = new HashMap<>();
+        int updated = 0;
+        for (int i = 0; i < ORDERS; i++) {
+            String orderId = prefix + i;
+            String seeded = seededStatus(i);
+            expected.put(orderId, seeded);
+            switch (i % 8) {
+                case 0, 2, 4 -> {
+                    input.append(line(ndjson, orderId, "IN_TRANSIT", "2026-12-01"));
+                    expected.put(orderId, "IN_TRANSIT");
+                    updated++;
+                }
+                case 1 -> input.append(line(ndjson, orderId, "CONFIRMED", ""));
+                case 3 -> {
+                    input.append(line(ndjson, orderId, "delivered", ""));
+                    expected.put(orderId, "DELIVERED");
+                    updated++;
+                }
+                case 5 -> {
+                    input.append(line(ndjson, orderId, "", "2026-12-24"));
+                    updated++;
+                }
+                case 6 -> input.append(line(ndjson, orderId, "SHIPPED", ""));
+                default -> input.append(ndjson ? "{\"orderId\": \"" + orderId + "\"" : orderId).append('\n');
+            }
+            if (i == 1500) {
+                input.append('\n');
+            }
+        }
+        input.append(line(ndjson, prefix + "missing", "DELIVERED", ""));
+        int rows = ORDERS + 1;
+
+        List<BulkOrderUpdateReport> reports = new ArrayList<>();
+        long started = System.nanoTime();
+        orderService.bulkUpdateOrders(new BufferedReader(new StringReader(input.toString())), ndjson, reports::add);
+        long elapsed = System.nanoTime() - started;
+
+        assertThat(reports).hasSize(4);
+        List<BulkOrderUpdateReport> chunks = reports.subList(0, 3);
+        assertThat(chunks).extracting(BulkOrderUpdateReport::getChunk).containsExactly(1, 2, 3);
+        assertThat(chunks).extracting(BulkOrderUpdateReport::getRows).containsExactly(CHUNK, CHUNK, rows - 2 * CHUNK);
+        assertThat(chunks.get(0).getFirstLine()).isEqualTo(1);
+        assertThat(chunks.get(1).getFirstLine()).isEqualTo(chunks.get(0).getLastLine() + 1);
+        assertThat(chunks.get(2).getFirstLine()).isEqualTo(chunks.get(1).getLastLine() + 1);
+        assertThat(chunks).allSatisfy(chunk -> {
+            assertThat(chunk.getDone()).isFalse();
+            assertThat(chunk.getUpdated() + chunk.getRejected()).isEqualTo(chunk.getRows());
+            assertThat(chunk.getErrors()).hasSize(chunk.getRejected());
+        });
+        assertThat(chunks.get(2).getErrors()).contains("Line " + chunks.get(2).getLastLine() + " (" + prefix + "missing): Order not found");
+        assertThat(chunks.get(0).getErrors()).anySatisfy(error -> assertThat(error).endsWith("Cannot move order from IN_TRANSIT to CONFIRMED"));
+        assertThat(chunks.get(0).getErrors()).anySatisfy(error -> assertThat(error).endsWith("Invalid status: SHIPPED"));
+        assertThat(chunks.get(0).getErrors()).anySatisfy(error ->
+                assertThat(error).endsWith(ndjson ? "Invalid JSON" : "Expected orderId,status,arrivingDate"));
+
+        BulkOrderUpdateReport total = reports.get(3);
+        assertThat(total.getDone()).isTrue();
+        assertThat(total.getRows()).isEqualTo(rows);
+        assertThat(total.getUpdated()).isEqualTo(updated);
+        assertThat(total.getRejected()).isEqualTo(rows - updated);
+
+        assertThat(statuses(prefix)).isEqualTo(expected);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE order_id LIKE ? AND arriving_date = '2026-12-24'",
+                Integer.class, prefix + "%")).isEqualTo(ORDERS / 8);
+
+        System.out.printf("Bulk order update (%s) of %d rows: %d ms, %.0f rows/s%n",
+                ndjson ? "NDJSON" : "CSV", rows, elapsed / 1_000_000, rows * 1e9 / elapsed);
+    }
+
+    // Even orders start CONFIRMED, odd ones IN_TRANSIT
+    private String seededStatus(int i) {
+        return i % 2 == 0 ? "CONFIRMED" : "IN_TRANSIT";
+    }
+
+    private void seedOrders(String prefix) {
+        Customer customer = createCustomer();
+        List<Object[]> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(new Object[]{UUID.randomUUID(), prefix + i, customer.getId(), seededStatus(i)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (id, order_id, customer_id, status, total_amount, payment_mode, created_at) " +
+                "VALUES (?, ?, ?, ?, 50.00, 'UPI', CURRENT_TIMESTAMP)", orders);
+    }
+
+    private String line(boolean ndjson, String orderId, String status, String arrivingDate) {
+        if (ndjson) {
+            return "{\"orderId\": \"" + orderId + "\", \"status\": \"" + status + "\", \"arrivingDate\": \"" + arrivingDate + "\"}\n";
+        }
+        return orderId + "," + status + "," + arrivingDate + "\n";
+    }
+
+    private Map<String, String> statuses(String prefix) {
+        Map<String, String> statuses = new HashMap<>();
+        jdbcTemplate.query("SELECT order_id, status FROM orders WHERE order_id LIKE ?",
+                rs -> {
+                    statuses.put(rs.getString("order_id"), rs.getString("status"));
+                }, prefix + "%");
+        return statuses;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.ecart.service;
+
+import com.example.ecart.IntegrationTestSupport;
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.Order;
+import com.example.ecart.domain.entity.Product;
+import com.example.ecart.dto.response.BulkCancelResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderCancellationTest extends IntegrationTestSupport {
+    private static final int ORDERS = 10;
+    private static final int BULK_ORDERS = 10_000;
+    private static final int SINGLE_ORDERS = 500;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // A customer cancel, an admin cancel and a bulk cancel of the same order race; only one
+    // of them may cancel it and put its units back
+    @Test
+    void racingCancelsRestoreStockOnce() throws Exception {
+        Product product = createProduct(100, "10.00");
+        for (int i = 0; i < ORDERS; i++) {
+            Customer customer = createCustomer();
+            String orderId = checkout(customer, product, 3);
+
+            List<Boolean> outcomes = runConcurrently(List.<Callable<Boolean>>of(
+                    () -> cancelled(() -> orderService.cancelOrder(orderId, customer.getCustomerId(), "Changed my mind")),
+                    () -> cancelled(() -> orderService.adminCancelOrder(orderId)),
+                    () -> orderService.bulkCancelOrders(List.of(orderId), "Bulk").getCancelled() == 1));
+
+            assertThat(outcomes).containsOnlyOnce(true);
+            assertThat(stock(product)).isEqualTo(100);
+        }
+    }
+
+    // Ten chunks of confirmed orders with a few shipped ones and unknown ids mixed in: every
+    // confirmed order is cancelled, the rest are reported, and the stock comes back summed
+    @Test
+    void bulkCancelAcrossChunks() {
+        Customer customer = createCustomer();
+        Product first = createProduct(0, "10.00");
+        Product second = createProduct(0, "20.00");
+        String prefix = "BULK-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+
+        List<String> orderIds = seedOrders(prefix, BULK_ORDERS, customer, first, second);
+        // One shipped order every 1500, so they land in different chunks
+        Map<String, String> shipped = new LinkedHashMap<>();
+        for (int i = 7; i < BULK_ORDERS; i += 1500) {
+            shipped.put(orderIds.get(i), Order.OrderStatus.IN_TRANSIT.name());
+            jdbcTemplate.update("UPDATE orders SET status = 'IN_TRANSIT' WHERE order_id = ?", orderIds.get(i));
+        }
+        int expectedFirst = 0;
+        int expectedSecond = 0;
+        for (int i = 0; i < BULK_ORDERS; i++) {
+            if (!shipped.containsKey(orderIds.get(i))) {
+                expectedFirst += 1;
+                expectedSecond += 1 + i % 3;
+            }
+        }
+
+        List<String> missing = List.of(prefix + "missing-1", prefix + "missing-2");
+        List<String> request = new ArrayList<>(orderIds);
+        request.add(5000, missing.get(0));
+        request.add(missing.get(1));
+        request.add(orderIds.get(0));
+
+        long started = System.nanoTime();
+        BulkCancelResponse response = orderService.bulkCancelOrders(request, "Warehouse closed");
+        long elapsed = System.nanoTime() - started;
+
+        assertThat(response.getRequested()).isEqualTo(BULK_ORDERS + missing.size());
+        assertThat(response.getCancelled()).isEqualTo(BULK_ORDERS - shipped.size());
+        assertThat(response.getNotFound()).containsExactlyElementsOf(missing);
+        assertThat(response.getNotCancellable()).isEqualTo(shipped);
+        assertThat(response.getFailed()).isEmpty();
+        assertThat(response.getRestoredStock()).isEqualTo(Map.of(
+                first.getProductId(), expectedFirst,
+                second.getProductId(), expectedSecond));
+        assertThat(stock(first)).isEqualTo(expectedFirst);
+        assertThat(stock(second)).isEqualTo(expectedSecond);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE order_id LIKE ? AND status = 'CANCELLED'",
+                Integer.class, prefix + "%")).isEqualTo(BULK_ORDERS - shipped.size());
+
+
+        // The same work one order at a time through the admin cancel, for comparison
+        List<String> single = seedOrders(prefix + "single-", SINGLE_ORDERS, customer, first, second);
+        started = System.nanoTime();
+        single.forEach(orderService::adminCancelOrder);
+        long singleElapsed = System.nanoTime() - started;
+
+        System.out.printf("Bulk cancel of %d orders: %d ms, %.0f cancellations/s | one at a time: %.0f cancellations/s%n",
+                BULK_ORDERS, elapsed / 1_000_000, response.getCancelled() * 1e9 / elapsed, SINGLE_ORDERS * 1e9 / singleElapsed);
+    }
+
+    // Confirmed orders of one unit of first and one to three of second, inserted directly
+    private List<String> seedOrders(String prefix, int count, Customer customer, Product first, Product second) {
+        List<String> orderIds = new ArrayList<>();
+        List<Object[]> orders = new ArrayList<>();
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String orderId = prefix + i;
+            orderIds.add(orderId);
+            UUID id = UUID.randomUUID();
+            orders.add(new Object[]{id, orderId, customer.getId()});
+            items.add(new Object[]{UUID.randomUUID(), id, first.getId(), first.getName(), 1});
+            items.add(new Object[]{UUID.randomUUID(), id, second.getId(), second.getName(), 1 + i % 3});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (id, order_id, customer_id, status, total_amount, payment_mode, created_at) " +
+                "VALUES (?, ?, ?, 'CONFIRMED', 50.00, 'UPI', CURRENT_TIMESTAMP)", orders);
+        jdbcTemplate.batchUpdate("INSERT INTO order_items (id, order_id, product_id, product_name, quantity, category, unit_price) " +
+                "VALUES (?, ?, ?, ?, ?, 'OTHER', 10.00)", items);
+        return orderIds;
+    }
+
+    private String checkout(Customer customer, Product product, int quantity) {
+        cartService.addToCart(customer.getCustomerId(), product.getProductId(), quantity);
+        String orderId = orderService.createOrderFromCart(customer.getCustomerId(), "1 Test Street").getOrderId();
+        cartService.clearCart(customer.getCustomerId());
+        return orderId;
+    }
+
+    private boolean cancelled(Runnable cancel) {
+        try {
+            cancel.run();
+            return true;
+        } catch (RuntimeException e) {
+            // Another cancel got there first
+            return false;
+        }
+    }
+
+    private int stock(Product product) {
+        return productRepository.findByProductId(product.getProductId()).orElseThrow().getQuantityAvailable();
+    }
+
+    // Runs the tasks on their own threads, all released at once
+    private <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        try {
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
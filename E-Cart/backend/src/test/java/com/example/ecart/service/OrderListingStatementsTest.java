@@ -0,0 +1,109 @@
+package com.example.ecart.service;
+
+import com.example.ecart.IntegrationTestSupport;
+import com.example.ecart.SqlStatementCounter;
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.Order;
+import com.example.ecart.domain.entity.Product;
+import com.example.ecart.dto.response.OrderResponse;
+import com.example.ecart.dto.response.OrderSliceResponse;
+import com.example.ecart.repository.OrderViewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A 100-order page costs a fixed handful of statements, however many orders, items and
+// customers it spans
+class OrderListingStatementsTest extends IntegrationTestSupport {
+    private static final int ORDERS = 100;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+
+    private final List<String> orderIds = new ArrayList<>();
+    private Specification<Order> spec;
+
+    @BeforeEach
+    void createOrders() {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            customers.add(createCustomer());
+        }
+        Product first = createProduct(10000, "10.00");
+        Product second = createProduct(10000, "25.00");
+        for (int i = 0; i < ORDERS; i++) {
+            String customerId = customers.get(i % customers.size()).getCustomerId();
+            cartService.addToCart(customerId, first.getProductId(), 1);
+            cartService.addToCart(customerId, second.getProductId(), 2);
+            orderIds.add(orderService.createOrderFromCart(customerId, "1 Test Street").getOrderId());
+            cartService.clearCart(customerId);
+        }
+        // Only this test's orders, whatever other tests left in the shared database
+        spec = (root, query, cb) -> root.get("orderId").in(orderIds);
+    }
+
+    @Test
+    void pageOf100OrdersUsesAConstantNumberOfStatements() {
+        SqlStatementCounter.reset();
+        Page<OrderResponse> page = orderService.getAllOrders(spec, PageRequest.of(0, ORDERS, Sort.by("createdAt")));
+        int statements = SqlStatementCounter.count();
+
+        assertThat(page.getContent()).hasSize(ORDERS);
+        assertThat(page.getContent()).allSatisfy(order -> assertThat(order.getItems()).hasSize(2));
+        // The page, its count and one IN query on order_views
+        assertThat(statements).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void keysetSliceOf100OrdersUsesAConstantNumberOfStatements() {
+        SqlStatementCounter.reset();
+        OrderSliceResponse slice = orderService.getAllOrders(spec, null, ORDERS, false);
+        int statements = SqlStatementCounter.count();
+
+        assertThat(slice.getContent()).hasSize(ORDERS);
+        // The slice and one IN query on order_views, no count
+        assertThat(statements).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void oversizedSliceIsClampedToTheMaximum() {
+        OrderSliceResponse slice = orderService.getAllOrders(spec, null, Integer.MAX_VALUE, false);
+
+        assertThat(slice.getSize()).isEqualTo(100);
+        assertThat(slice.getContent()).hasSize(100);
+    }
+
+    @Test
+    void backfillOfA100OrderPageUsesAConstantNumberOfStatements() {
+        orderViewRepository.deleteAll();
+
+        SqlStatementCounter.reset();
+        Page<OrderResponse> page = orderService.getAllOrders(spec, PageRequest.of(0, ORDERS, Sort.by("createdAt")));
+        int statements = SqlStatementCounter.count();
+
+        assertThat(page.getContent()).hasSize(ORDERS);
+        assertThat(page.getContent()).allSatisfy(order -> {
+            assertThat(order.getItems()).hasSize(2);
+            assertThat(order.getCustomerName()).startsWith("Test Customer");
+        });
+        // Page, count, views, orders with customers and items with products; the documents
+        // are inserted in one JdbcTemplate batch, which this counter does not see
+        assertThat(statements).isLessThanOrEqualTo(5);
+        assertThat(orderViewRepository.count()).isGreaterThanOrEqualTo(ORDERS);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.ecart.service;
+
+import com.example.ecart.IntegrationTestSupport;
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.Product;
+import com.example.ecart.dto.request.UpdateCustomerRequest;
+import com.example.ecart.dto.response.OrderResponse;
+import com.example.ecart.repository.OrderViewRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderViewServiceTest extends IntegrationTestSupport {
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+
+    @Test
+    void renamingACustomerRefreshesTheirOrderDocuments() {
+        Customer customer = createCustomer();
+        Product product = createProduct(100, "10.00");
+        List<String> orderIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            orderIds.add(checkout(customer, product));
+        }
+
+        customerService.updateCustomer(customer.getCustomerId(), renameRequest(customer, "Renamed Customer"));
+
+        for (String orderId : orderIds) {
+            assertThat(orderService.getOrderByOrderId(orderId).getCustomerName()).isEqualTo("Renamed Customer");
+        }
+    }
+
+    // Concurrent first reads of an order without a document all backfill it; none may fail
+    @Test
+    void concurrentFirstReadsBackfillOnce() throws Exception {
+        Customer customer = createCustomer();
+        String orderId = checkout(customer, createProduct(100, "10.00"));
+        orderViewRepository.delete(orderViewRepository.findByOrderId(orderId).orElseThrow());
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OrderResponse>> reads = new ArrayList<>();
+        try {
+            for (int i = 0; i < 16; i++) {
+                reads.add(executor.submit(() -> {
+                    start.await();
+                    return orderService.getOrderByOrderId(orderId);
+                }));
+            }
+            start.countDown();
+            for (Future<OrderResponse> read : reads) {
+                assertThat(read.get().getOrderId()).isEqualTo(orderId);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(orderViewRepository.findByOrderId(orderId)).isPresent();
+    }
+
+    private String checkout(Customer customer, Product product) {
+        cartService.addToCart(customer.getCustomerId(), product.getProductId(), 1);
+        return orderService.createOrderFromCart(customer.getCustomerId(), "1 Test Street").getOrderId();
+    }
+
+    private UpdateCustomerRequest renameRequest(Customer customer, String name) {
+        UpdateCustomerRequest request = new UpdateCustomerRequest();
+        request.setName(name);
+        request.setCountry(customer.getCountry());
+        request.setState(customer.getState());
+        request.setCity(customer.getCity());
+        request.setAddress1(customer.getAddress1());
+        request.setZipCode(customer.getZipCode());
+        request.setPhoneNumber(customer.getPhoneNumber());
+        request.setEmail(customer.getEmail());
+        return request;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.ecart.service;
+
+import com.example.ecart.IntegrationTestSupport;
+import com.example.ecart.domain.entity.OutboxEvent;
+import com.example.ecart.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutboxDispatcherTest extends IntegrationTestSupport {
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    // A subscriber that always throws gets the event max-attempts times, then it is parked
+    @Test
+    void eventIsParkedAfterMaxAttempts() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        OutboxSubscriber failing = new OutboxSubscriber() {
+            @Override
+            public String getName() {
+                return "always-failing";
+            }
+
+            @Override
+            public boolean supports(OutboxEvent.EventType eventType) {
+                return true;
+            }
+
+            @Override
+            public void handle(OutboxEvent event) {
+                calls.incrementAndGet();
+                throw new RuntimeException("Subscriber is down");
+            }
+        };
+
+        Object subscribers = ReflectionTestUtils.getField(outboxDispatcher, "subscribers");
+        Object maxBackoffMillis = ReflectionTestUtils.getField(outboxDispatcher, "maxBackoffMillis");
+        ReflectionTestUtils.setField(outboxDispatcher, "subscribers", List.of(failing));
+        ReflectionTestUtils.setField(outboxDispatcher, "maxBackoffMillis", 0L);
+        ReflectionTestUtils.setField(outboxDispatcher, "maxAttempts", 3);
+        try {
+            OutboxEvent event = outboxEventRepository.save(OutboxEvent.builder()
+                    .eventType(OutboxEvent.EventType.STOCK_CHANGED)
+                    .aggregateId("parked-test")
+                    .payload("{}")
+                    .nextAttemptAt(LocalDateTime.now())
+                    .build());
+
+            OutboxEvent.EventStatus status = OutboxEvent.EventStatus.PENDING;
+            for (int i = 0; i < 100 && status == OutboxEvent.EventStatus.PENDING; i++) {
+                Thread.sleep(100);
+                status = outboxEventRepository.findById(event.getId()).orElseThrow().getStatus();
+            }
+
+            OutboxEvent parked = outboxEventRepository.findById(event.getId()).orElseThrow();
+            assertThat(parked.getStatus()).isEqualTo(OutboxEvent.EventStatus.PARKED);
+            assertThat(parked.getAttempts()).isEqualTo(3);
+            assertThat(calls).hasValue(3);
+        } finally {
+            ReflectionTestUtils.setField(outboxDispatcher, "subscribers", subscribers);
+            ReflectionTestUtils.setField(outboxDispatcher, "maxBackoffMillis", maxBackoffMillis);
+            ReflectionTestUtils.setField(outboxDispatcher, "maxAttempts", 10);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.ecart.service;
+
+import com.example.ecart.IntegrationTestSupport;
+import com.example.ecart.domain.entity.Customer;
+import com.example.ecart.domain.entity.Order;
+import com.example.ecart.domain.entity.PaymentAttempt;
+import com.example.ecart.dto.request.PaymentRequest;
+import com.example.ecart.repository.OrderRepository;
+import com.example.ecart.repository.PaymentAttemptRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentServiceTest extends IntegrationTestSupport {
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private StubPaymentGateway stubPaymentGateway;
+
+    @Autowired
+    private PaymentGatewayClient paymentGatewayClient;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentAttemptRepository paymentAttemptRepository;
+
+    @Test
+    void declineReasonReachesTheCaller() throws Exception {
+        Customer customer = createCustomer();
+        String orderId = checkout(customer);
+        ReflectionTestUtils.setField(stubPaymentGateway, "declineRate", 1.0);
+        try {
+            String outcome = paymentService.processPayment(orderId, cardPayment(orderId), customer.getCustomerId())
+                    .handle((response, error) -> messageOf(error))
+                    .get(10, TimeUnit.SECONDS);
+            assertThat(outcome).isEqualTo("Payment declined: Card declined");
+        } finally {
+            ReflectionTestUtils.setField(stubPaymentGateway, "declineRate", 0.0);
+        }
+        assertThat(failedAttempts(orderId)).isEqualTo(1);
+    }
+
+    // A timeout completes the gateway future on the JDK timeout thread; the failed attempt must
+    // still be recorded on the payment completion pool
+    @Test
+    void timedOutChargeIsAppliedOnTheCompletionPool() throws Exception {
+        Customer customer = createCustomer();
+        String orderId = checkout(customer);
+        ReflectionTestUtils.setField(stubPaymentGateway, "latencyMedianMillis", 1000L);
+        ReflectionTestUtils.setField(paymentGatewayClient, "timeoutMillis", 200L);
+        try {
+            CompletableFuture<Map<String, String>> payment =
+                    paymentService.processPayment(orderId, cardPayment(orderId), customer.getCustomerId());
+            String[] completedOn = new String[1];
+            String outcome = payment.handle((response, error) -> {
+                completedOn[0] = Thread.currentThread().getName();
+                return messageOf(error);
+            }).get(10, TimeUnit.SECONDS);
+
+            assertThat(outcome).isEqualTo("Payment gateway timed out");
+            assertThat(completedOn[0]).isEqualTo("payment-completion");
+        } finally {
+            ReflectionTestUtils.setField(stubPaymentGateway, "latencyMedianMillis", 0L);
+            ReflectionTestUtils.setField(paymentGatewayClient, "timeoutMillis", 5000L);
+        }
+        assertThat(failedAttempts(orderId)).isEqualTo(1);
+    }
+
+    private String checkout(Customer customer) {
+        cartService.addToCart(customer.getCustomerId(), createProduct(10, "25.00").getProductId(), 1);
+        return orderService.createOrderFromCart(customer.getCustomerId(), "1 Test Street").getOrderId();
+    }
+
+    private PaymentRequest cardPayment(String orderId) {
+        PaymentRequest request = new PaymentRequest();
+        request.setOrderId(orderId);
+        request.setPaymentMode(Order.PaymentMode.CREDIT_CARD);
+        request.setCardNumber("4111111111111111");
+        request.setCardHolderName("Test Customer");
+        request.setExpiryDate("12/30");
+        request.setCvv("123");
+        return request;
+    }
+
+    private String messageOf(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause == null ? null : cause.getMessage();
+    }
+
+    private int failedAttempts(String orderId) {
+        Order order = orderRepository.findByOrderId(orderId).orElseThrow();
+        return paymentAttemptRepository.findByOrderAndStatus(order, PaymentAttempt.PaymentStatus.FAILED).size();
+    }
+}
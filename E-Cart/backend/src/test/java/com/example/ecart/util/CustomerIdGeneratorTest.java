@@ -0,0 +1,60 @@
+package com.example.ecart.util;
+
+import com.example.ecart.IntegrationTestSupport;
+import com.example.ecart.domain.entity.Customer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerIdGeneratorTest extends IntegrationTestSupport {
+    @Autowired
+    private IdSequenceAllocator idSequenceAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void highestIdIsOrderedNumerically() {
+        saveCustomer("CUST-19990101-9999");
+        saveCustomer("CUST-19990101-10000");
+
+        assertThat(customerRepository.findCustomerIdsWithPrefixHighestFirst("CUST-19990101-", PageRequest.of(0, 1)))
+                .containsExactly("CUST-19990101-10000");
+    }
+
+    // A day that already issued 10000 ids, with its counter row lost: the counter must restart
+    // after 10000, not after the 9999 a string max() would pick
+    @Test
+    void counterSeedsPastTheWidthBoundary() {
+        String date = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        saveCustomer("CUST-" + date + "-9999");
+        saveCustomer("CUST-" + date + "-10000");
+        jdbcTemplate.update("DELETE FROM id_sequences WHERE name = ?", "customer-" + date);
+        idSequenceAllocator.forget("customer-" + date);
+
+        assertThat(customerIdGenerator.generateCustomerId()).isEqualTo("CUST-" + date + "-10001");
+    }
+
+    private void saveCustomer(String customerId) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        customerRepository.save(Customer.builder()
+                .customerId(customerId)
+                .name("Test Customer " + suffix)
+                .country("India")
+                .state("Maharashtra")
+                .city("Mumbai")
+                .address1("1 Test Street")
+                .zipCode("400001")
+                .phoneNumber("9876543210")
+                .email("customer-" + suffix + "@example.com")
+                .passwordHash("not-used")
+                .build());
+    }
+}
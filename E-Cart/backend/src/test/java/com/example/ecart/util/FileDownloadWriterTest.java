@@ -0,0 +1,141 @@
+package com.example.ecart.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// One request per branch of the writer, through MockMvc against a 100-byte file
+class FileDownloadWriterTest {
+    private static final String ETAG = "abc123";
+    private static final Instant MODIFIED = Instant.parse("2026-01-01T12:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    private final byte[] body = new byte[100];
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) i;
+        }
+        Path file = Files.write(dir.resolve("invoice.pdf"), body);
+        Files.setLastModifiedTime(file, FileTime.from(MODIFIED));
+        mockMvc = MockMvcBuilders.standaloneSetup(new DownloadController(new FileDownloadWriter(), file)).build();
+    }
+
+    @Test
+    void sendsWholeFile() throws Exception {
+        mockMvc.perform(get("/download"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + ETAG + "\""))
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, MODIFIED.toEpochMilli()))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 100))
+                .andExpect(content().bytes(body));
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws Exception {
+        mockMvc.perform(get("/download").header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/\"" + ETAG + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + ETAG + "\""))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void ifModifiedSinceAtLastModifiedIsNotModified() throws Exception {
+        mockMvc.perform(get("/download").header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(MODIFIED)))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+        mockMvc.perform(get("/download").header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(MODIFIED.minusSeconds(1))))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(body));
+    }
+
+    @Test
+    void singleRangeIsPartialContent() throws Exception {
+        mockMvc.perform(get("/download").header(HttpHeaders.RANGE, "bytes=10-19"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-19/100"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(content().bytes(Arrays.copyOfRange(body, 10, 20)));
+    }
+
+    @Test
+    void suffixRangeSendsTheLastBytes() throws Exception {
+        mockMvc.perform(get("/download").header(HttpHeaders.RANGE, "bytes=-10"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 90-99/100"))
+                .andExpect(content().bytes(Arrays.copyOfRange(body, 90, 100)));
+    }
+
+    @Test
+    void rangePastTheEndIsNotSatisfiable() throws Exception {
+        mockMvc.perform(get("/download").header(HttpHeaders.RANGE, "bytes=100-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */100"))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void staleIfRangeSendsWholeFile() throws Exception {
+        mockMvc.perform(get("/download").header(HttpHeaders.RANGE, "bytes=10-19").header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().bytes(body));
+        mockMvc.perform(get("/download").header(HttpHeaders.RANGE, "bytes=10-19").header(HttpHeaders.IF_RANGE, "\"" + ETAG + "\""))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes(Arrays.copyOfRange(body, 10, 20)));
+    }
+
+    @Test
+    void multipleRangesSendWholeFile() throws Exception {
+        mockMvc.perform(get("/download").header(HttpHeaders.RANGE, "bytes=0-9,20-29"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().bytes(body));
+    }
+
+    private String httpDate(Instant instant) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setDate(HttpHeaders.IF_MODIFIED_SINCE, instant.toEpochMilli());
+        return headers.getFirst(HttpHeaders.IF_MODIFIED_SINCE);
+    }
+
+    @RestController
+    static class DownloadController {
+        private final FileDownloadWriter writer;
+        private final Path file;
+
+        DownloadController(FileDownloadWriter writer, Path file) {
+            this.writer = writer;
+            this.file = file;
+        }
+
+        @GetMapping("/download")
+        public void download(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            writer.write(request, response, file, ETAG, "application/pdf", "invoice.pdf");
+        }
+    }
+}
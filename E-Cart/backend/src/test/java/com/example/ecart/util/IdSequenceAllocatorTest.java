@@ -0,0 +1,46 @@
+package com.example.ecart.util;
+
+import com.example.ecart.IntegrationTestSupport;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdSequenceAllocatorTest extends IntegrationTestSupport {
+    @Autowired
+    private IdSequenceAllocator idSequenceAllocator;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    // Every main connection is held, as by registrations waiting on an id; refilling a block
+    // must still go through instead of waiting for one of them
+    @Test
+    void refillsWhileTheMainPoolIsExhausted() throws Exception {
+        List<Connection> held = new ArrayList<>();
+        try {
+            for (int i = 0; i < dataSource.getMaximumPoolSize(); i++) {
+                held.add(dataSource.getConnection());
+            }
+
+            long first = CompletableFuture.supplyAsync(() -> idSequenceAllocator.nextUnbuffered("exhausted-pool", () -> 1L))
+                    .get(10, TimeUnit.SECONDS);
+            long second = CompletableFuture.supplyAsync(() -> idSequenceAllocator.nextUnbuffered("exhausted-pool", () -> 1L))
+                    .get(10, TimeUnit.SECONDS);
+
+            assertThat(first).isEqualTo(1L);
+            assertThat(second).isEqualTo(2L);
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+    }
+}
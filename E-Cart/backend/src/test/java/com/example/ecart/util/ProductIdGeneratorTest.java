@@ -0,0 +1,70 @@
+package com.example.ecart.util;
+
+import com.example.ecart.IntegrationTestSupport;
+import com.example.ecart.domain.entity.Product;
+import com.example.ecart.dto.request.CreateProductRequest;
+import com.example.ecart.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductIdGeneratorTest extends IntegrationTestSupport {
+    private static final int BULK = 1500;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void highestIdIsOrderedNumerically() {
+        saveProduct("99999999");
+        saveProduct("100000000");
+
+        assertThat(productRepository.findProductIdsHighestFirst(PageRequest.of(0, 1))).containsExactly("100000000");
+    }
+
+    // Bulk create past the 999 products the three-character ids could hold, against the
+    // COUNT(*) the old generator ran per product
+    @Test
+    void bulkCreateIssuesUniqueIds() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Set<String> ids = new HashSet<>();
+        long started = System.nanoTime();
+        for (int i = 0; i < BULK; i++) {
+            CreateProductRequest request = new CreateProductRequest();
+            request.setName("Bulk " + suffix + " " + i);
+            request.setPrice(new BigDecimal("9.99"));
+            request.setCategory(Product.ProductCategory.OTHER);
+            request.setQuantityAvailable(10);
+            ids.add(productService.createProduct(request).getProductId());
+        }
+        long elapsed = System.nanoTime() - started;
+
+        started = System.nanoTime();
+        for (int i = 0; i < BULK; i++) {
+            productRepository.count();
+        }
+        long countElapsed = System.nanoTime() - started;
+
+        System.out.printf("Bulk create of %d products: %d ms, %.0f products/s | COUNT(*) per product at %d rows: %d ms%n",
+                BULK, elapsed / 1_000_000, BULK * 1e9 / elapsed, productRepository.count(), countElapsed / 1_000_000);
+        assertThat(ids).hasSize(BULK);
+        assertThat(ids).allSatisfy(id -> assertThat(id).matches("\\d{3,}"));
+    }
+
+    private void saveProduct(String productId) {
+        productRepository.save(Product.builder()
+                .productId(productId)
+                .name("Test Product " + productId)
+                .price(new BigDecimal("1.00"))
+                .category(Product.ProductCategory.OTHER)
+                .quantityAvailable(1)
+                .build());
+    }
+}
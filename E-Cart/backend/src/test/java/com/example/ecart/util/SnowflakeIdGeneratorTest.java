@@ -0,0 +1,67 @@
+package com.example.ecart.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnowflakeIdGeneratorTest {
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 50_000;
+
+    // Enough ids per thread to run past the 4096 per-millisecond sequence many times over
+    @Test
+    void concurrentIdsAreUniqueAndWellFormed() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator();
+        ReflectionTestUtils.setField(generator, "configuredNodeId", 7L);
+        generator.init();
+
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        ids.add(generator.nextId("ORD"));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(THREADS * IDS_PER_THREAD);
+        assertThat(ids).allSatisfy(id -> assertThat(id).matches("ORD-\\d{14}-[0-9A-F]{8}"));
+    }
+
+    @Test
+    void idsFromOneThreadIncrease() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator();
+        ReflectionTestUtils.setField(generator, "configuredNodeId", 7L);
+        generator.init();
+
+        String previous = generator.nextId("TXN");
+        for (int i = 0; i < 100_000; i++) {
+            String next = generator.nextId("TXN");
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+}